@@ -0,0 +1,134 @@
+package com.forsakenecho.learning_management_system.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.forsakenecho.learning_management_system.dto.LessonResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshot nội dung bài học đã serialize sẵn: JSON + bản gzip, tính một lần khi tạo/sửa bài học
+ * (hoặc lần đọc đầu tiên trên node này), sau đó trả thẳng byte, không qua Jackson mỗi request.
+ * Snapshot gắn với updatedAt của bài học: ETag mạnh suy ra từ (lessonId, updatedAt), nên chỉ cần đọc
+ * updatedAt từ DB để biết snapshot còn đúng hay không (kể cả khi bài học được sửa ở node khác).
+ */
+@Component
+public class LessonSnapshotCache {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<UUID, LessonSnapshot> cache;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter notModifiedCounter;
+
+    public record LessonSnapshot(UUID lessonId, LocalDateTime updatedAt, byte[] json, byte[] gzip) {
+
+        public String etag(boolean gzipped) {
+            return LessonSnapshotCache.etag(lessonId, updatedAt, gzipped);
+        }
+    }
+
+    public LessonSnapshotCache(ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${lesson-snapshot.max-bytes:67108864}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((UUID key, LessonSnapshot value) -> value.json().length + value.gzip().length)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "lessonSnapshotCache");
+        this.hitCounter = Counter.builder("lesson.snapshot.requests").tag("result", "hit")
+                .description("Nội dung bài học trả từ snapshot")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("lesson.snapshot.requests").tag("result", "miss")
+                .description("Snapshot bài học phải dựng lại")
+                .register(meterRegistry);
+        this.notModifiedCounter = Counter.builder("lesson.snapshot.requests").tag("result", "not_modified")
+                .description("Client revalidate thành công (304)")
+                .register(meterRegistry);
+    }
+
+    // ETag mạnh: bản gzip và bản JSON là hai biểu diễn khác nhau nên có ETag khác nhau
+    public static String etag(UUID lessonId, LocalDateTime updatedAt, boolean gzipped) {
+        long micros = ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), updatedAt);
+        return "\"" + lessonId + "-" + Long.toHexString(micros) + (gzipped ? "-gz" : "") + "\"";
+    }
+
+    public static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Snapshot ứng với đúng updatedAt hiện tại trong DB; dựng lại nếu chưa có hoặc đã cũ.
+     */
+    public LessonSnapshot get(UUID lessonId, LocalDateTime updatedAt, Supplier<LessonResponse> loader) {
+        LessonSnapshot snapshot = cache.getIfPresent(lessonId);
+        if (snapshot != null && snapshot.updatedAt().equals(updatedAt)) {
+            hitCounter.increment();
+            return snapshot;
+        }
+        missCounter.increment();
+        LessonResponse response = loader.get();
+        // Bài học có thể vừa được sửa giữa hai lần đọc: dùng updatedAt của chính dữ liệu đã load
+        return put(response, response.getUpdatedAt() != null ? response.getUpdatedAt() : updatedAt);
+    }
+
+    // ✅ Gọi khi tạo / sửa bài học: dựng snapshot ngay để lần đọc đầu tiên không phải serialize
+    // Không đưa lessonOrder vào snapshot: vị trí đổi khi bài khác được kéo thả (không đổi updatedAt/ETag của bài này),
+    // client lấy vị trí từ mục lục (/outline)
+    public LessonSnapshot put(LessonResponse response, LocalDateTime updatedAt) {
+        byte[] json;
+        try {
+            ObjectNode body = objectMapper.valueToTree(response);
+            body.remove("lessonOrder");
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize lesson " + response.getId(), e);
+        }
+        LessonSnapshot snapshot = new LessonSnapshot(response.getId(), updatedAt, json, gzip(json));
+        cache.put(response.getId(), snapshot);
+        return snapshot;
+    }
+
+    public void evict(UUID lessonId) {
+        cache.invalidate(lessonId);
+    }
+
+    public void recordNotModified() {
+        notModifiedCounter.increment();
+    }
+
+    // Chỉ nén một lần cho mỗi phiên bản nên dùng mức nén cao nhất
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,137 @@
+package com.forsakenecho.learning_management_system.cache;
+
+import com.forsakenecho.learning_management_system.event.CourseChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache dùng chung cho response GET của các endpoint public (search, categories, facets, comments, rating).
+ * Key là path + query param đã chuẩn hóa; value là body JSON kèm ETag mạnh (SHA-256 của body).
+ * Bị xóa đúng phạm vi khi khóa học / bình luận / đánh giá thay đổi; TTL giới hạn độ trễ giữa các node.
+ */
+@Component
+public class PublicResponseCache {
+
+    // Các key bắt đầu bằng prefix này phụ thuộc vào toàn bộ catalog (search, categories, facets, ...)
+    static final String CATALOG_PREFIX = "/api/public/courses/";
+    private static final String COURSE_PREFIX = "/api/student/courses/";
+
+    private final Cache<String, CachedResponse> cache;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter notModifiedCounter;
+    // Tăng mỗi lần xóa cache: response tính xong sau một lần xóa có thể đã cũ, không được put lại
+    private final AtomicLong generation = new AtomicLong();
+
+    public record CachedResponse(byte[] body, String contentType, String etag, long lastModified) {
+    }
+
+    public PublicResponseCache(MeterRegistry meterRegistry,
+                               @Value("${public-cache.max-bytes:33554432}") long maxBytes,
+                               @Value("${public-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse value) -> key.length() + value.body().length)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "publicResponseCache");
+        this.hitCounter = Counter.builder("public.cache.requests").tag("result", "hit")
+                .description("Response public lấy từ cache")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("public.cache.requests").tag("result", "miss")
+                .description("Response public phải tính lại")
+                .register(meterRegistry);
+        this.notModifiedCounter = Counter.builder("public.cache.requests").tag("result", "not_modified")
+                .description("Client revalidate thành công (304)")
+                .register(meterRegistry);
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    // Lấy trước khi tính response, truyền lại cho putIfGeneration
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Chỉ lưu nếu không có lần xóa cache nào kể từ khi lấy generation (response có thể đọc dữ liệu trước lúc ghi).
+     * Kiểm tra lại sau khi put: lần xóa chen vào giữa kiểm tra và put sẽ khiến entry vừa lưu bị bỏ.
+     */
+    public boolean putIfGeneration(String key, CachedResponse response, long expectedGeneration) {
+        if (generation.get() != expectedGeneration) {
+            return false;
+        }
+        cache.put(key, response);
+        if (generation.get() != expectedGeneration) {
+            cache.asMap().remove(key, response);
+            return false;
+        }
+        return true;
+    }
+
+    void recordHit() {
+        hitCounter.increment();
+    }
+
+    void recordMiss() {
+        missCounter.increment();
+    }
+
+    void recordNotModified() {
+        notModifiedCounter.increment();
+    }
+
+    // ✅ Khóa học thay đổi: catalog (search/categories/facets) và các response gắn với khóa học đó đều cũ
+    // Chạy sau listener của search index / facet để request kế tiếp thấy dữ liệu mới
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        evictCatalog();
+        evictCourseKeys(event.courseId());
+    }
+
+    public void evictCatalog() {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.startsWith(CATALOG_PREFIX));
+    }
+
+    /**
+     * Xóa comments / rating của một khóa học khỏi cache.
+     * Nếu đang trong transaction thì xóa thêm một lần sau commit để không giữ lại dữ liệu cũ.
+     */
+    public void evictCourse(UUID courseId) {
+        evictCourseKeys(courseId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictCourseKeys(courseId);
+                }
+            });
+        }
+    }
+
+    private void evictCourseKeys(UUID courseId) {
+        String prefix = COURSE_PREFIX + courseId + "/";
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+}
@@ -0,0 +1,148 @@
+package com.forsakenecho.learning_management_system.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Conditional GET (ETag / Last-Modified) + cache dùng chung cho các endpoint public đọc nhiều.
+ * Chạy sau Spring Security (thứ tự mặc định của filter bean), nên quyền truy cập vẫn được kiểm tra như cũ.
+ */
+@Component
+@RequiredArgsConstructor
+public class PublicResponseCacheFilter extends OncePerRequestFilter {
+
+    // Chỉ các response không phụ thuộc người dùng mới được cache chung
+    private static final List<Pattern> CACHEABLE_PATHS = List.of(
+            Pattern.compile("^/api/public/courses/(search|suggest|categories|facets)$"),
+            Pattern.compile("^/api/student/courses/[0-9a-fA-F-]{36}/comments$"),
+            Pattern.compile("^/api/student/courses/[0-9a-fA-F-]{36}/rating/average$")
+    );
+
+    private final PublicResponseCache publicResponseCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return CACHEABLE_PATHS.stream().noneMatch(p -> p.matcher(path).matches());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = cacheKey(request);
+        PublicResponseCache.CachedResponse cached = publicResponseCache.get(key);
+        if (cached != null) {
+            publicResponseCache.recordHit();
+            writeCached(request, response, cached);
+            return;
+        }
+
+        publicResponseCache.recordMiss();
+        long generation = publicResponseCache.generation(); // trước khi controller đọc dữ liệu
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() != HttpStatus.OK.value()) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        byte[] body = wrapper.getContentAsByteArray();
+        // Làm tròn xuống giây vì header Last-Modified chỉ có độ chính xác giây
+        long lastModified = System.currentTimeMillis() / 1000 * 1000;
+        cached = new PublicResponseCache.CachedResponse(body, wrapper.getContentType(), etagOf(body), lastModified);
+        // Dữ liệu đổi trong lúc tính (vd. bình luận mới) -> vẫn trả response này nhưng không cache
+        publicResponseCache.putIfGeneration(key, cached, generation);
+
+        wrapper.resetBuffer(); // body sẽ được ghi lại từ bản cache (hoặc bỏ qua nếu 304)
+        writeCached(request, wrapper, cached);
+        wrapper.copyBodyToResponse();
+    }
+
+    private void writeCached(HttpServletRequest request, HttpServletResponse response,
+                             PublicResponseCache.CachedResponse cached) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, cached.lastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache"); // client luôn revalidate, thường nhận 304
+
+        if (isNotModified(request, cached)) {
+            publicResponseCache.recordNotModified();
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        if (cached.contentType() != null) {
+            response.setContentType(cached.contentType());
+        }
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    // If-None-Match được ưu tiên; chỉ xét If-Modified-Since khi client không gửi ETag
+    private static boolean isNotModified(HttpServletRequest request, PublicResponseCache.CachedResponse cached) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.trim().equals("*")
+                    || Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .anyMatch(tag -> tag.equals(cached.etag()));
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince != -1 && cached.lastModified() <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            return false; // header sai định dạng
+        }
+    }
+
+    // Key = path + query param sắp theo tên (giữ thứ tự giá trị, vd. nhiều tham số sort)
+    static String cacheKey(HttpServletRequest request) {
+        StringBuilder sb = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> params = new TreeMap<>(request.getParameterMap());
+        char separator = '?';
+        for (Map.Entry<String, String[]> param : params.entrySet()) {
+            for (String value : param.getValue()) {
+                sb.append(separator)
+                        .append(URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(value.trim(), StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.forsakenecho.learning_management_system.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Schema bảng vẫn do Hibernate (ddl-auto=update) tạo, nên Flyway phải chạy sau EntityManagerFactory.
+ * Bỏ qua lần migrate mặc định (trước JPA) và migrate lại khi EntityManagerFactory đã sẵn sàng.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy() {
+        return flyway -> {
+            // ✅ Không migrate ở đây: bảng có thể chưa tồn tại
+        };
+    }
+
+    @Bean
+    public InitializingBean flywayDeferredMigration(Flyway flyway, EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            MigrateResult result = flyway.migrate();
+            System.out.println("Flyway applied " + result.migrationsExecuted
+                    + " migrations, schema version " + result.targetSchemaVersion);
+        };
+    }
+}
@@ -2,6 +2,7 @@ package com.forsakenecho.learning_management_system.config;
 
 import com.forsakenecho.learning_management_system.jwt.JwtFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -14,6 +15,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -31,6 +33,11 @@ public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+
+    // Cost factor của BCrypt; tăng lên thì hash cũ được nâng cấp dần khi user đăng nhập
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
 
     @Order(1) // Chain cho Stripe webhook, không add JwtFilter
     @Bean
@@ -67,6 +74,10 @@ public class SecurityConfig {
 
                         .requestMatchers("/api/payment/**").permitAll()
 
+                        // ✅ Catalog public (search, categories, facets) cho khách chưa đăng nhập
+                        // purchased-course-ids vẫn được bảo vệ bằng @PreAuthorize("isAuthenticated()")
+                        .requestMatchers(HttpMethod.GET, "/api/public/courses/**").permitAll()
+
 
                         .requestMatchers("/api/teacher/courses/generate").permitAll()
                         .requestMatchers("/api/teacher/ai/generate-lesson").permitAll()
@@ -86,6 +97,8 @@ public class SecurityConfig {
 
 
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/teacher/**").hasRole("TEACHER")
                         .requestMatchers("/api/student/**").hasRole("STUDENT")
 
@@ -101,7 +114,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -114,6 +127,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // ✅ Đăng nhập thành công với hash cost thấp hơn cấu hình -> băm lại và lưu
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 }
\ No newline at end of file
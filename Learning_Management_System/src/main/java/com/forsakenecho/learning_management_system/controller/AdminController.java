@@ -1,16 +1,20 @@
 package com.forsakenecho.learning_management_system.controller;
 
 import com.forsakenecho.learning_management_system.dto.CourseResponse;
+import com.forsakenecho.learning_management_system.dto.CursorPage;
+import com.forsakenecho.learning_management_system.dto.KeysetCursor;
 import com.forsakenecho.learning_management_system.dto.RegisterRequest;
 import com.forsakenecho.learning_management_system.entity.Course;
 import com.forsakenecho.learning_management_system.entity.Event;
 import com.forsakenecho.learning_management_system.entity.User;
+import com.forsakenecho.learning_management_system.enums.Role;
 import com.forsakenecho.learning_management_system.enums.Status;
 import com.forsakenecho.learning_management_system.repository.CourseManagementRepository;
 import com.forsakenecho.learning_management_system.repository.CourseRepository;
 import com.forsakenecho.learning_management_system.repository.EventRepository;
 import com.forsakenecho.learning_management_system.repository.UserRepository;
 import com.forsakenecho.learning_management_system.service.CourseService; // ✅ Import CourseService
+import com.forsakenecho.learning_management_system.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
@@ -47,6 +51,7 @@ public class AdminController {
     private final EventRepository eventRepository;
     private final PasswordEncoder passwordEncoder;
     private final CourseService courseService; // ✅ Inject CourseService
+    private final CustomUserDetailsService customUserDetailsService;
 
     @GetMapping("/dashboard")
     public ResponseEntity<?> dashboardStats() {
@@ -65,7 +70,16 @@ public class AdminController {
     @GetMapping("/users")
     public ResponseEntity<?> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "8") int size) {
+            @RequestParam(defaultValue = "8") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        // ✅ Có cursor (kể cả rỗng = trang đầu) -> phân trang keyset, không COUNT
+        if (cursor != null) {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            List<User> rows = userRepository.findByRoleInKeyset(List.of(Role.STUDENT, Role.TEACHER),
+                    after.createdAt(), after.id(), PageRequest.of(0, size + 1));
+            return ResponseEntity.ok(CursorPage.of(rows, size, u -> new KeysetCursor(u.getCreatedAt(), u.getId())));
+        }
 
         Pageable pageable = PageRequest.of(page, size);
         Page<User> userPage = userRepository.findByRoleInOrderByCreatedAtDesc(List.of("STUDENT", "TEACHER"), pageable);
@@ -88,12 +102,16 @@ public class AdminController {
     @PutMapping("/users/{id}")
     public ResponseEntity<?> updateUser(@PathVariable UUID id, @RequestBody User updatedUser, Authentication authentication) {
         User user = userRepository.findById(id).orElseThrow();
+        String oldEmail = user.getEmail();
         user.setEmail(updatedUser.getEmail());
         user.setRole(updatedUser.getRole());
         if (updatedUser.getPassword() != null && !updatedUser.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
         }
         userRepository.save(user);
+        // ✅ Role/mật khẩu/email đổi -> bỏ principal cũ khỏi cache
+        customUserDetailsService.evictUser(oldEmail);
+        customUserDetailsService.evictUser(user.getEmail());
 
         User currentUser = (User) authentication.getPrincipal();
 
@@ -115,6 +133,11 @@ public class AdminController {
             user.setStatus(Status.ACTIVE);
         }
         userRepository.save(user);
+        if (user.getStatus() == Status.BLOCKED) {
+            // ✅ Thu hồi mọi token đang lưu hành của user bị khóa
+            userRepository.incrementTokenVersion(user.getId(), LocalDateTime.now());
+        }
+        customUserDetailsService.evictUser(user.getEmail()); // ✅ khóa có hiệu lực ngay
 
         User currentUser = (User) authentication.getPrincipal();
 
@@ -129,10 +152,15 @@ public class AdminController {
     @GetMapping("/courses")
     public ResponseEntity<?> getAllCourses(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "8") int size) {
+            @RequestParam(defaultValue = "8") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            List<CourseResponse> rows = courseRepository.findAllKeyset(after.createdAt(), after.id(), PageRequest.of(0, size + 1));
+            return ResponseEntity.ok(CursorPage.of(rows, size, c -> new KeysetCursor(c.getCreatedAt(), c.getId())));
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<Course> coursePage = courseRepository.findAll(pageable);
-        Page<CourseResponse> response = coursePage.map(CourseResponse::from);
+        Page<CourseResponse> response = courseRepository.findAllResponses(pageable);
         return ResponseEntity.ok(response);
     }
 
@@ -161,7 +189,14 @@ public class AdminController {
     @GetMapping("/logs")
     public ResponseEntity<?> getAllLogs(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        if (cursor != null) {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            List<Event> rows = eventRepository.findAllKeyset(after.createdAt(), after.id(), PageRequest.of(0, size + 1));
+            return ResponseEntity.ok(CursorPage.of(rows, size, e -> new KeysetCursor(e.getTimestamp(), e.getId())));
+        }
 
         Pageable pageable = PageRequest.of(page, size);
         Page<Event> logPage = eventRepository.findAllByOrderByTimestampDesc(pageable);
@@ -5,14 +5,19 @@ import com.forsakenecho.learning_management_system.entity.BlacklistedToken;
 import com.forsakenecho.learning_management_system.entity.User;
 import com.forsakenecho.learning_management_system.enums.Status;
 import com.forsakenecho.learning_management_system.jwt.JwtUtil;
+import com.forsakenecho.learning_management_system.jwt.ParsedToken;
+import com.forsakenecho.learning_management_system.jwt.TokenRevocationCache;
 import com.forsakenecho.learning_management_system.repository.BlacklistedTokenRepository;
 import com.forsakenecho.learning_management_system.repository.UserRepository;
+import com.forsakenecho.learning_management_system.service.CustomUserDetailsService;
+import com.forsakenecho.learning_management_system.service.PasswordVerificationService;
+import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -20,7 +25,10 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 @RequestMapping("/api/auth")
 @RestController
@@ -30,8 +38,13 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
-    private final AuthenticationManager authenticationManager;
+    private final PasswordVerificationService passwordVerificationService;
     private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final CustomUserDetailsService customUserDetailsService;
+
+    @Value("${auth.password-pool.retry-after-seconds:2}")
+    private int retryAfterSeconds;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest registerRequest) {
@@ -65,23 +78,34 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) throws Exception {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
-        );
-
-        User user = userRepository.findByEmail(loginRequest.getEmail()).orElseThrow();
-        String token = jwtUtil.generateToken(user);
-
-        // ✅ Thêm userId vào response
-        return ResponseEntity.ok(new AuthResponse(
-                token,
-                user.getRole().name(),
-                user.getStatus().name(),
-                user.getId().toString(), // gửi UUID dưới dạng chuỗi
-                user.getName(),
-                user.getEmail()
-        ));
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
+        // ✅ Kiểm tra mật khẩu trên pool riêng và trả thread Tomcat ngay (async servlet);
+        // pool đầy hoặc chờ quá lâu thì trả 503 + Retry-After
+        return passwordVerificationService.authenticate(loginRequest.getEmail(), loginRequest.getPassword())
+                .<ResponseEntity<?>>thenApply(authentication -> {
+                    User user = userRepository.findByEmail(loginRequest.getEmail()).orElseThrow();
+                    String token = jwtUtil.generateToken(user);
+
+                    // ✅ Thêm userId vào response
+                    return ResponseEntity.ok(new AuthResponse(
+                            token,
+                            user.getRole().name(),
+                            user.getStatus().name(),
+                            user.getId().toString(), // gửi UUID dưới dạng chuỗi
+                            user.getName(),
+                            user.getEmail()
+                    ));
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof RejectedExecutionException || cause instanceof TimeoutException) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                                .body("Hệ thống đang bận, vui lòng thử lại sau.");
+                    }
+                    // Lỗi xác thực (BadCredentialsException, ...) giữ nguyên cách xử lý của Spring Security
+                    throw e instanceof CompletionException completion ? completion : new CompletionException(cause);
+                });
     }
 
     @PostMapping("/logout")
@@ -90,12 +114,13 @@ public class AuthController {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
 
-            // 1. Kiểm tra nếu token đã hết hạn (từ phía server)
+            // 1. Parse token một lần: lấy hạn dùng và hash
             // Nếu token đã hết hạn, không cần thêm vào blacklist
+            ParsedToken parsedToken;
             try {
-                if (jwtUtil.isTokenExpired(token)) {
-                    return ResponseEntity.ok("Token already expired. Logged out successfully.");
-                }
+                parsedToken = jwtUtil.parse(token);
+            } catch (ExpiredJwtException e) {
+                return ResponseEntity.ok("Token already expired. Logged out successfully.");
             } catch (Exception e) {
                 // Xử lý các lỗi khi parse token (malformed, signature error, etc.)
                 // Nếu token lỗi, cũng không cần blacklist
@@ -104,13 +129,12 @@ public class AuthController {
 
 
             // 2. Lấy thời gian hết hạn của token từ JWT
-            Date expirationDate = jwtUtil.extractExpiration(token);
-            LocalDateTime expirationTime = expirationDate.toInstant()
+            LocalDateTime expirationTime = parsedToken.expiration()
                     .atZone(ZoneId.systemDefault()) // Hoặc ZoneId.of("UTC")
                     .toLocalDateTime();
 
             // 3. Thêm token vào blacklist (sử dụng hash token)
-            String tokenToBlacklist = jwtUtil.hashToken(token);
+            String tokenToBlacklist = parsedToken.tokenHash();
 
             BlacklistedToken blacklistedEntry = BlacklistedToken.builder()
                     .tokenHash(tokenToBlacklist)
@@ -119,6 +143,8 @@ public class AuthController {
 
             try {
                 blacklistedTokenRepository.save(blacklistedEntry);
+                // ✅ Có hiệu lực ngay tại node này, các node khác nhận qua đồng bộ định kỳ
+                tokenRevocationCache.revoke(tokenToBlacklist, expirationTime);
                 return ResponseEntity.ok("Logged out successfully");
             } catch (Exception e) {
                 // Xử lý trường hợp token đã có trong blacklist (ví dụ: người dùng logout 2 lần)
@@ -130,6 +156,17 @@ public class AuthController {
         return ResponseEntity.badRequest().body("Missing or invalid Authorization header");
     }
 
+    // ✅ Đăng xuất khỏi mọi thiết bị: tăng tokenVersion, mọi JWT cũ bị JwtFilter từ chối
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(Authentication auth) {
+        if (auth == null || !(auth.getPrincipal() instanceof User user)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized");
+        }
+        userRepository.incrementTokenVersion(user.getId(), LocalDateTime.now());
+        customUserDetailsService.evictUser(user.getEmail());
+        return ResponseEntity.ok("Logged out from all sessions");
+    }
+
     @GetMapping("/me")
     public ResponseEntity<?> me(Authentication auth) {
         return ResponseEntity.ok(auth.getPrincipal());
@@ -3,6 +3,8 @@ package com.forsakenecho.learning_management_system.controller;
 import com.forsakenecho.learning_management_system.dto.CourseProgressSummaryDTO;
 import com.forsakenecho.learning_management_system.dto.LearningProgressDTO;
 import com.forsakenecho.learning_management_system.dto.LessonProgressDTO;
+import com.forsakenecho.learning_management_system.dto.LessonStepProgressDTO;
+import com.forsakenecho.learning_management_system.dto.LessonStepUpdateRequest;
 import com.forsakenecho.learning_management_system.entity.LearningProgress;
 import com.forsakenecho.learning_management_system.entity.User;
 import com.forsakenecho.learning_management_system.service.LearningProgressService;
@@ -94,4 +96,27 @@ public class LearningProgressController {
         User student = (User) authentication.getPrincipal();
         return ResponseEntity.ok(progressService.getUserCourseProgress(student.getId(), courseId));
     }
+
+    // ✅ Các bước đã làm của từng bài học trong khóa học (riêng sinh viên hiện tại)
+    @PreAuthorize("hasRole('STUDENT')")
+    @GetMapping("/{courseId}/steps")
+    public ResponseEntity<List<LessonStepProgressDTO>> getCourseSteps(
+            @PathVariable UUID courseId,
+            Authentication authentication
+    ) {
+        User student = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(progressService.getCourseSteps(student.getId(), courseId));
+    }
+
+    @PreAuthorize("hasRole('STUDENT')")
+    @PatchMapping("/{courseId}/lessons/{lessonId}/steps")
+    public ResponseEntity<LessonStepProgressDTO> updateLessonSteps(
+            @PathVariable UUID courseId,
+            @PathVariable UUID lessonId,
+            @RequestBody LessonStepUpdateRequest request,
+            Authentication authentication
+    ) {
+        User student = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(progressService.updateLessonSteps(student.getId(), courseId, lessonId, request));
+    }
 }
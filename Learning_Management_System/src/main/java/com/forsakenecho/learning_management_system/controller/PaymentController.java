@@ -7,6 +7,7 @@ import com.forsakenecho.learning_management_system.entity.User;
 import com.forsakenecho.learning_management_system.enums.TransactionType;
 import com.forsakenecho.learning_management_system.repository.TransactionHistoryRepository;
 import com.forsakenecho.learning_management_system.repository.UserRepository;
+import com.forsakenecho.learning_management_system.service.CustomUserDetailsService;
 import com.stripe.Stripe;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.model.Event;
@@ -29,6 +30,7 @@ public class PaymentController {
     private final UserRepository userRepository;
     private final TransactionHistoryRepository transactionHistoryRepository;
     private final ObjectMapper objectMapper;
+    private final CustomUserDetailsService customUserDetailsService;
 
     @Value("${stripe.secretKey}")
     private String secretKey;
@@ -87,6 +89,7 @@ public class PaymentController {
 
                 user.setBalance(user.getBalance().add(amount));
                 userRepository.save(user);
+                customUserDetailsService.evictUser(user.getEmail()); // ✅ số dư thay đổi
 
                 // Lưu lịch sử giao dịch
                 transactionHistoryRepository.save(TransactionHistory.builder()
@@ -3,6 +3,8 @@ package com.forsakenecho.learning_management_system.controller;
 import com.forsakenecho.learning_management_system.dto.CourseResponse;
 import com.forsakenecho.learning_management_system.entity.User;
 import com.forsakenecho.learning_management_system.repository.UserRepository;
+import com.forsakenecho.learning_management_system.search.CourseTitleSuggester;
+import com.forsakenecho.learning_management_system.search.FacetCounts;
 import com.forsakenecho.learning_management_system.service.CourseService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -39,6 +41,15 @@ public class PublicCourseController {
         return ResponseEntity.ok(results);
     }
 
+    // ✅ Autocomplete cho ô tìm kiếm (gọi mỗi lần gõ phím thay cho /search)
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CourseTitleSuggester.Suggestion>> suggestCourses(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "8") int limit
+    ) {
+        return ResponseEntity.ok(courseService.suggestCourses(query, limit));
+    }
+
     // ✅ Endpoint để lấy tất cả các danh mục có sẵn
     @GetMapping("/categories")
     public ResponseEntity<List<String>> getAllCategories() {
@@ -46,6 +57,12 @@ public class PublicCourseController {
         return ResponseEntity.ok(categories);
     }
 
+    // ✅ Số khóa học visible theo danh mục và khoảng giá
+    @GetMapping("/facets")
+    public ResponseEntity<FacetCounts> getFacets() {
+        return ResponseEntity.ok(courseService.getCourseFacets());
+    }
+
     @GetMapping("/purchased-course-ids")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<UUID>> getPurchasedCourseIds(
@@ -8,11 +8,15 @@ import com.forsakenecho.learning_management_system.entity.User;
 import com.forsakenecho.learning_management_system.enums.CourseAccessType;
 import com.forsakenecho.learning_management_system.enums.NotificationType;
 import com.forsakenecho.learning_management_system.enums.TransactionType;
+import com.forsakenecho.learning_management_system.event.CoursePurchasedEvent;
 import com.forsakenecho.learning_management_system.repository.*;
 import com.forsakenecho.learning_management_system.service.CourseService;
+import com.forsakenecho.learning_management_system.service.CourseStatsService;
+import com.forsakenecho.learning_management_system.service.CustomUserDetailsService;
 import com.forsakenecho.learning_management_system.service.NotificationService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -39,6 +43,9 @@ public class StudentController {
     private final TransactionHistoryRepository transactionHistoryRepository;
     private final UserRepository userRepository;
     private final NotificationService  notificationService;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final CourseStatsService courseStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     // Helper method to get current user
@@ -54,8 +61,7 @@ public class StudentController {
             @RequestParam(defaultValue = "8") int size) {
         User user = getCurrentUser(authentication);
         Pageable pageable = PageRequest.of(page, size);
-        Page<Course> courses = courseService.getCoursesByUserAndAccessType(user.getId(), CourseAccessType.PURCHASED, pageable);
-        Page<CourseResponse> response = courses.map(CourseResponse::from);
+        Page<CourseResponse> response = courseService.getPurchasedCourses(user.getId(), pageable);
         return ResponseEntity.ok(response);
     }
 
@@ -67,7 +73,9 @@ public class StudentController {
             @RequestBody PurchaseCourseRequest request,
             Authentication authentication) {
 
-        User student = getCurrentUser(authentication);
+        // ✅ Đọc lại student trong transaction: principal có thể lấy từ cache (số dư cũ, dùng chung giữa các request)
+        User student = userRepository.findById(getCurrentUser(authentication).getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy người dùng."));
 
         // Fetch course and its creator (teacher) within the transaction
         Course course = courseRepository.findById(request.getCourseId())
@@ -123,6 +131,10 @@ public class StudentController {
             teacher.setBalance(teacherBalanceBd.add(coursePriceBd));
             userRepository.save(teacher); // ✅ LƯU TRẠNG THÁI MỚI CỦA TEACHER VÀO DB
 
+            // ✅ Số dư đổi -> invalidate principal đã cache
+            customUserDetailsService.evictUser(student.getEmail());
+            customUserDetailsService.evictUser(teacher.getEmail());
+
             // ✅ Ghi nhận giao dịch của sinh viên (người trả tiền)
             transactionHistoryRepository.save(TransactionHistory.builder()
                     .user(student)
@@ -166,6 +178,8 @@ public class StudentController {
                 .accessType(CourseAccessType.PURCHASED)
                 .build();
         courseManagementRepository.save(courseManagement);
+        courseStatsService.enrollmentAdded(course.getId()); // ✅ cùng transaction với lượt mua
+        eventPublisher.publishEvent(new CoursePurchasedEvent(student.getId(), course.getId())); // chỉ mục mua kèm, sau commit
 
 
 
@@ -219,16 +233,31 @@ public class StudentController {
     }
 
 
+    // Gợi ý "học viên mua khóa này cũng mua" (bỏ các khóa sinh viên đã sở hữu)
+    @GetMapping("/courses/{id}/recommendations")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<List<CourseResponse>> getRecommendations(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
+        User student = getCurrentUser(authentication);
+        return ResponseEntity.ok(courseService.getCoPurchaseRecommendations(id, student.getId(), limit));
+    }
+
     // Lấy danh sách khóa học đang visible nhưng học sinh CHƯA mua (explore)
     @GetMapping("/explore")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<Page<CourseResponse>> getExploreCourses(
+    public ResponseEntity<?> getExploreCourses(
             Authentication authentication,
             @RequestParam(value = "category", required = false) String category, // ✅ Thêm category
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "8") int size
+            @RequestParam(defaultValue = "8") int size,
+            @RequestParam(value = "cursor", required = false) String cursor // ✅ có cursor (kể cả rỗng) -> phân trang keyset
     ) {
         User student = getCurrentUser(authentication);
+        if (cursor != null) {
+            return ResponseEntity.ok(courseService.getExploreCoursesKeyset(student.getId(), category, cursor, size));
+        }
         Pageable pageable = PageRequest.of(page, size);
 
         // ✅ Gọi phương thức mới trong CourseService để lọc explore courses
@@ -1,14 +1,26 @@
 // src/main/java/com/forsakenecho/learning_management_system/controller/StudentLessonController.java
 package com.forsakenecho.learning_management_system.controller;
 
+import com.forsakenecho.learning_management_system.cache.LessonSnapshotCache;
+import com.forsakenecho.learning_management_system.dto.LessonOutlineResponse;
 import com.forsakenecho.learning_management_system.dto.LessonResponse;
+import com.forsakenecho.learning_management_system.dto.QuizGradeRequest;
+import com.forsakenecho.learning_management_system.dto.QuizGradeResponse;
+import com.forsakenecho.learning_management_system.entity.User;
 import com.forsakenecho.learning_management_system.service.LessonService;
+import com.forsakenecho.learning_management_system.service.QuizGradingService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,6 +30,8 @@ import java.util.UUID;
 public class StudentLessonController {
 
     private final LessonService lessonService;
+    private final LessonSnapshotCache lessonSnapshotCache;
+    private final QuizGradingService quizGradingService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('STUDENT', 'TEACHER')") // Chỉ cho phép người dùng có ROLE_STUDENT truy cập
@@ -27,6 +41,76 @@ public class StudentLessonController {
         return new ResponseEntity<>(lessons, HttpStatus.OK);
     }
 
+    // ✅ Mục lục nhẹ cho sidebar (không có nội dung bài học)
+    @GetMapping("/outline")
+    @PreAuthorize("hasAnyRole('STUDENT', 'TEACHER')")
+    public ResponseEntity<List<LessonOutlineResponse>> getLessonOutline(@PathVariable UUID courseId) {
+        return ResponseEntity.ok(lessonService.getLessonOutline(courseId));
+    }
+
+    // ✅ Nội dung một bài học, tải khi sinh viên mở bài học
+    // Trả thẳng byte của snapshot (gzip nếu client hỗ trợ), ETag mạnh theo updatedAt -> 304 không cần load nội dung
+    @GetMapping("/{lessonId}")
+    @PreAuthorize("hasAnyRole('STUDENT', 'TEACHER')")
+    public ResponseEntity<byte[]> getLesson(@PathVariable UUID courseId,
+                                            @PathVariable UUID lessonId,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        LocalDateTime updatedAt = lessonService.getLessonUpdatedAt(courseId, lessonId);
+        String etag = LessonSnapshotCache.etag(lessonId, updatedAt, gzip);
+
+        if (etagMatches(ifNoneMatch, lessonId, updatedAt)) {
+            lessonSnapshotCache.recordNotModified();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        LessonSnapshotCache.LessonSnapshot snapshot = lessonService.getLessonSnapshot(courseId, lessonId, updatedAt);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.etag(gzip))
+                .lastModified(LessonSnapshotCache.lastModified(snapshot.updatedAt()))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return builder.body(snapshot.json());
+    }
+
+    // If-None-Match khớp bản JSON hoặc bản gzip của cùng phiên bản bài học
+    private boolean etagMatches(String ifNoneMatch, UUID lessonId, LocalDateTime updatedAt) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String plain = LessonSnapshotCache.etag(lessonId, updatedAt, false);
+        String gzipped = LessonSnapshotCache.etag(lessonId, updatedAt, true);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(plain) || tag.equals(gzipped)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ✅ Chấm trắc nghiệm phía server: nhiều câu / nhiều bài học trong một request
+    @PostMapping("/quiz/grade")
+    @PreAuthorize("hasAnyRole('STUDENT', 'TEACHER')")
+    public ResponseEntity<QuizGradeResponse> gradeQuiz(@PathVariable UUID courseId,
+                                                       @Valid @RequestBody QuizGradeRequest request,
+                                                       Authentication authentication) {
+        User student = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(quizGradingService.grade(courseId, student, request));
+    }
+
     // Các endpoint khác liên quan đến bài học cho học sinh (nếu cần, ví dụ: đánh dấu hoàn thành bài học)
     // sẽ được thêm vào đây sau.
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ package com.forsakenecho.learning_management_system.controller;
 import com.forsakenecho.learning_management_system.dto.*;
 import com.forsakenecho.learning_management_system.enums.CourseCategory;
 import com.forsakenecho.learning_management_system.enums.NotificationType;
+import com.forsakenecho.learning_management_system.event.CourseChangedEvent;
 import com.forsakenecho.learning_management_system.service.AiCourseGeneratorService;
 import com.forsakenecho.learning_management_system.service.FileStorageService;
 
@@ -20,7 +21,9 @@ import com.forsakenecho.learning_management_system.service.CourseService;
 
 
 import com.forsakenecho.learning_management_system.service.NotificationService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -54,6 +57,7 @@ public class TeacherController {
     private final AiCourseGeneratorService  aiCourseGeneratorService;
     private final EventRepository eventRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Helper method to get current user
     private User getCurrentUser(Authentication authentication) {
@@ -62,12 +66,16 @@ public class TeacherController {
 
     // API lấy danh sách khóa học do giáo viên tạo
     @GetMapping("/courses")
-    public ResponseEntity<Page<CourseResponse>> getCreatedCourses(
+    public ResponseEntity<?> getCreatedCourses(
             Authentication authentication,
             @RequestParam(value = "category", required = false) String category, // ✅ Thêm category
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "8") int size) {
+            @RequestParam(defaultValue = "8") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) { // ✅ có cursor -> phân trang keyset
         User user = getCurrentUser(authentication);
+        if (cursor != null) {
+            return ResponseEntity.ok(courseService.getCreatedCoursesKeyset(user.getId(), category, cursor, size));
+        }
         Pageable pageable = PageRequest.of(page, size);
         // ✅ Gọi phương thức mới trong CourseService để lọc created courses
         Page<CourseResponse> response = courseService.getCreatedCoursesForTeacher(user.getId(), category, pageable);
@@ -133,6 +141,9 @@ public class TeacherController {
                 .accessType(CourseAccessType.CREATED)
                 .build());
 
+        // ✅ Cập nhật search index và các cấu trúc in-memory khác
+        eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), CourseChangedEvent.ChangeType.CREATED));
+
         // Ghi log Event
         eventRepository.save(Event.builder()
                 .action("Giáo viên " + teacher.getName() + " đã tạo khóa học mới: " + course.getTitle())
@@ -144,6 +155,23 @@ public class TeacherController {
         return ResponseEntity.status(HttpStatus.CREATED).body(courseResponse);
     }
 
+    // ✅ Tạo khóa học + toàn bộ bài học trong một request / một transaction (INSERT bài học được batch)
+    @PostMapping(value = "/courses/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CourseWithLessonsResponse> createCourseWithLessons(
+            @Valid @RequestBody CreateCourseWithLessonsRequest request,
+            Authentication authentication) throws IOException {
+        User teacher = getCurrentUser(authentication);
+        CourseWithLessonsResponse response = courseService.createCourseWithLessons(request, teacher);
+
+        eventRepository.save(Event.builder()
+                .action("Giáo viên " + teacher.getName() + " đã tạo khóa học mới: " + request.getTitle()
+                        + " (" + response.getLessons().size() + " bài học)")
+                .performedBy(teacher.getName())
+                .timestamp(LocalDateTime.now())
+                .build());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     @PostMapping("/courses/generate")
     public Mono<ResponseEntity<GenerateCourseResponse>> generateCourseFromIdea(@RequestBody Map<String, String> request, Authentication authentication) {
         String idea = request.get("idea");
@@ -2,12 +2,17 @@ package com.forsakenecho.learning_management_system.controller;
 
 import com.forsakenecho.learning_management_system.dto.CourseResponse;
 import com.forsakenecho.learning_management_system.dto.GenerateLessonResponse;
+import com.forsakenecho.learning_management_system.dto.LessonOutlineResponse;
+import com.forsakenecho.learning_management_system.dto.LessonMoveRequest;
+import com.forsakenecho.learning_management_system.dto.LessonPatchRequest;
+import com.forsakenecho.learning_management_system.dto.LessonReorderRequest;
 import com.forsakenecho.learning_management_system.dto.LessonRequest;
 import com.forsakenecho.learning_management_system.dto.LessonResponse; // ✅ Import LessonResponse
 import com.forsakenecho.learning_management_system.entity.Lesson; // Giữ lại nếu cần cho việc map nội bộ hoặc logging
 import com.forsakenecho.learning_management_system.entity.User;
 import com.forsakenecho.learning_management_system.service.AiLessonGeneratorService;
 import com.forsakenecho.learning_management_system.service.CourseService;
+import com.forsakenecho.learning_management_system.service.LessonOrderService;
 import com.forsakenecho.learning_management_system.service.LessonService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +34,7 @@ public class TeacherLessonController {
     private final LessonService lessonService;
     private final AiLessonGeneratorService  aiLessonGeneratorService;
     private final CourseService courseService;
+    private final LessonOrderService lessonOrderService;
 
     // tạo mới lesson
     @PostMapping
@@ -51,6 +57,15 @@ public class TeacherLessonController {
         return new ResponseEntity<>(updatedLesson, HttpStatus.OK);
     }
 
+    // ✅ Cập nhật một phần: chỉ các trường gửi lên, kèm version để phát hiện sửa đồng thời (409)
+    @PatchMapping("/{lessonId}")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<LessonResponse> patchLesson(@PathVariable UUID courseId,
+                                                      @PathVariable UUID lessonId,
+                                                      @Valid @RequestBody LessonPatchRequest patchRequest) {
+        return ResponseEntity.ok(lessonService.patchLesson(courseId, lessonId, patchRequest));
+    }
+
     // getLessonsByCourseId
     @GetMapping
     @PreAuthorize("hasRole('TEACHER')")
@@ -59,6 +74,32 @@ public class TeacherLessonController {
         return new ResponseEntity<>(lessons, HttpStatus.OK);
     }
 
+    // ✅ Mục lục nhẹ (id, tiêu đề, thứ tự, video) cho màn hình sắp xếp / sidebar
+    @GetMapping("/outline")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<List<LessonOutlineResponse>> getLessonOutline(@PathVariable UUID courseId) {
+        return ResponseEntity.ok(lessonService.getLessonOutline(courseId));
+    }
+
+    // ✅ Kéo thả một bài học: chỉ ghi sortKey của bài đó, trả về mục lục mới
+    @PostMapping("/{lessonId}/move")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<List<LessonOutlineResponse>> moveLesson(@PathVariable UUID courseId,
+                                                                  @PathVariable UUID lessonId,
+                                                                  @RequestBody LessonMoveRequest moveRequest) {
+        lessonOrderService.moveLesson(courseId, lessonId, moveRequest.getAfterLessonId());
+        return ResponseEntity.ok(lessonService.getLessonOutline(courseId));
+    }
+
+    // ✅ Sắp xếp lại toàn bộ khóa học trong một câu UPDATE
+    @PutMapping("/order")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<List<LessonOutlineResponse>> reorderLessons(@PathVariable UUID courseId,
+                                                                      @Valid @RequestBody LessonReorderRequest reorderRequest) {
+        lessonOrderService.reorderLessons(courseId, reorderRequest.getLessonIds());
+        return ResponseEntity.ok(lessonService.getLessonOutline(courseId));
+    }
+
     // delete Lesson
     @DeleteMapping("/{lessonId}")
     @PreAuthorize("hasRole('TEACHER')")
@@ -1,8 +1,11 @@
 package com.forsakenecho.learning_management_system.controller;
 
 import com.forsakenecho.learning_management_system.dto.ApiResponse;
+import com.forsakenecho.learning_management_system.dto.CursorPage;
+import com.forsakenecho.learning_management_system.dto.KeysetCursor;
 import com.forsakenecho.learning_management_system.dto.TopUpRequest;
 import com.forsakenecho.learning_management_system.dto.TransactionHistoryDTO;
+import com.forsakenecho.learning_management_system.entity.TransactionHistory;
 import com.forsakenecho.learning_management_system.entity.User;
 import com.forsakenecho.learning_management_system.repository.TransactionHistoryRepository;
 import com.forsakenecho.learning_management_system.repository.UserRepository;
@@ -21,6 +24,7 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 
 @RestController
@@ -73,12 +77,20 @@ public class UserWalletController {
     }
 
     @GetMapping("/history")
-    public ResponseEntity<Page<TransactionHistoryDTO>> getTransactionHistory(
+    public ResponseEntity<?> getTransactionHistory(
             Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(value = "cursor", required = false) String cursor // ✅ có cursor -> phân trang keyset
     ) {
         User user = (User) authentication.getPrincipal();
+        if (cursor != null) {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            List<TransactionHistory> rows = transactionHistoryRepository.findByUserIdKeyset(
+                    user.getId(), after.createdAt(), after.id(), PageRequest.of(0, size + 1));
+            return ResponseEntity.ok(CursorPage.of(rows, size, t -> new KeysetCursor(t.getCreatedAt(), t.getId()))
+                    .map(TransactionHistoryDTO::from));
+        }
         Pageable pageable = PageRequest.of(page, size);
 
         Page<TransactionHistoryDTO> history = transactionHistoryRepository
@@ -1,5 +1,6 @@
 package com.forsakenecho.learning_management_system.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.forsakenecho.learning_management_system.entity.Course;
 import com.forsakenecho.learning_management_system.enums.CourseCategory;
 import lombok.AllArgsConstructor;
@@ -26,6 +27,39 @@ public class CourseResponse {
     private LocalDateTime updatedAt;
     private boolean visible;
 
+    // ✅ Thống kê lấy từ course_stats (null nếu khóa học chưa có dòng thống kê)
+    private Double ratingAverage;
+    private Long ratingCount;
+    private Long enrollmentCount;
+    private Integer lessonCount;
+
+    // ✅ Chỉ có khi tìm kiếm theo từ khóa: HTML đã escape, từ khớp bọc trong <em>
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String highlightedTitle;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String snippet;
+
+    // ✅ Dùng cho JPQL "SELECT new CourseResponse(...)": một query join creator + course_stats, không load entity
+    public CourseResponse(UUID id, String title, String description, Double price, CourseCategory category,
+                          String creatorName, String imageUrl, LocalDateTime createdAt, LocalDateTime updatedAt,
+                          boolean visible, Long ratingCount, Long ratingSum, Long enrollmentCount,
+                          Integer lessonCount) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.price = price;
+        this.category = category;
+        this.creatorName = creatorName;
+        this.imageUrl = imageUrl;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.visible = visible;
+        this.ratingCount = ratingCount;
+        this.ratingAverage = ratingCount == null || ratingCount == 0 || ratingSum == null
+                ? null : (double) ratingSum / ratingCount;
+        this.enrollmentCount = enrollmentCount;
+        this.lessonCount = lessonCount;
+    }
 
     public static CourseResponse from(Course course) {
         return CourseResponse.builder()
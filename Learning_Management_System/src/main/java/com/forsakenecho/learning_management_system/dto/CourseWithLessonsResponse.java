@@ -0,0 +1,17 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseWithLessonsResponse {
+    private CourseResponse course;
+    private List<LessonOutlineResponse> lessons;
+}
@@ -0,0 +1,33 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import com.forsakenecho.learning_management_system.enums.CourseCategory;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// ✅ Tạo khóa học kèm danh sách bài học trong một request (thứ tự bài học = thứ tự trong danh sách)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateCourseWithLessonsRequest {
+    @NotBlank(message = "Tiêu đề khóa học không được để trống")
+    private String title;
+    @NotBlank(message = "Mô tả khóa học không được để trống")
+    private String description;
+    @NotNull(message = "Danh mục không được để trống")
+    private CourseCategory category;
+    @NotNull(message = "Giá không được để trống")
+    private Double price;
+    private String imageUrl;
+    private boolean visible;
+
+    @NotEmpty(message = "Khóa học phải có ít nhất một bài học")
+    @Size(max = 200, message = "Tối đa 200 bài học mỗi lần tạo")
+    private List<LessonRequest> lessons;
+}
@@ -0,0 +1,26 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Một trang kết quả phân trang keyset: không có tổng số bản ghi (không chạy COUNT),
+ * chỉ có nextCursor để lấy trang kế tiếp.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor, boolean hasNext) {
+
+    /**
+     * @param rows  kết quả truy vấn với limit = size + 1 (dòng dư dùng để biết còn trang sau)
+     * @param keyOf lấy (createdAt, id) của một dòng để tạo cursor
+     */
+    public static <E> CursorPage<E> of(List<E> rows, int size, Function<E, KeysetCursor> keyOf) {
+        boolean hasNext = rows.size() > size;
+        List<E> content = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext && !content.isEmpty() ? keyOf.apply(content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, next, hasNext);
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(content.stream().map(mapper).toList(), nextCursor, hasNext);
+    }
+}
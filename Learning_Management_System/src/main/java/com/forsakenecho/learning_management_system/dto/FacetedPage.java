@@ -0,0 +1,22 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import com.forsakenecho.learning_management_system.search.FacetCounts;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+// ✅ Page kèm số lượng facet (category, khoảng giá) trả về cùng kết quả tìm kiếm
+public class FacetedPage<T> extends PageImpl<T> {
+
+    private final FacetCounts facets;
+
+    public FacetedPage(List<T> content, Pageable pageable, long total, FacetCounts facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public FacetCounts getFacets() {
+        return facets;
+    }
+}
@@ -0,0 +1,38 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Vị trí trong danh sách sắp theo (createdAt DESC, id DESC), dùng cho phân trang keyset.
+ * Client chỉ thấy chuỗi base64url "mờ", gửi lại nguyên vẹn để lấy trang kế tiếp.
+ */
+public record KeysetCursor(LocalDateTime createdAt, UUID id) {
+
+    // Trang đầu: mốc lớn hơn mọi bản ghi
+    public static final KeysetCursor FIRST = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Chuỗi rỗng = trang đầu tiên
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor không hợp lệ.");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// Di chuyển bài học tới ngay sau afterLessonId; null = lên đầu khóa học
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LessonMoveRequest {
+    private UUID afterLessonId;
+}
@@ -0,0 +1,21 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// ✅ Mục lục bài học cho sidebar: không có các trường nội dung LONGTEXT
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LessonOutlineResponse {
+    private UUID id;
+    private String title;
+    private int lessonOrder;
+    private String youtubeVideoId;
+    private boolean isLessonCompleted;
+}
@@ -0,0 +1,40 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cập nhật một phần bài học (PATCH): trường nào null thì giữ nguyên giá trị cũ.
+ * version là giá trị client đọc được lần trước; lệch với DB thì trả 409.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LessonPatchRequest {
+    @NotNull(message = "Thiếu version của bài học")
+    private Long version;
+
+    @Pattern(regexp = ".*\\S.*", message = "Tiêu đề bài học không được để trống")
+    private String title;
+    private String youtubeVideoId;
+    private Integer lessonOrder;
+
+    private String recallQuestion;
+    private String material;
+    private String shortAnswer;
+    private String multipleChoice;
+    private String summaryTask;
+
+    // Tên JSON giống LessonResponse (recallQuestionCompleted, ...)
+    private Boolean recallQuestionCompleted;
+    private Boolean materialCompleted;
+    private Boolean shortAnswerCompleted;
+    private Boolean multipleChoiceCompleted;
+    private Boolean summaryTaskCompleted;
+    private Boolean lessonCompleted;
+}
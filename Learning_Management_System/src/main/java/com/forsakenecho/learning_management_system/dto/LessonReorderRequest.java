@@ -0,0 +1,18 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+// Thứ tự mới cho toàn bộ bài học của khóa học
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LessonReorderRequest {
+    @NotEmpty(message = "Danh sách bài học không được để trống")
+    private List<UUID> lessonIds;
+}
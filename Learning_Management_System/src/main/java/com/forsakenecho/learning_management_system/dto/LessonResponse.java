@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
@@ -32,4 +33,6 @@ public class LessonResponse {
     private boolean isLessonCompleted; // Trạng thái hoàn thành tổng thể
     private Integer lessonOrder;
     private UUID courseId; // ID của khóa học mà bài học này thuộc về
+    private LocalDateTime updatedAt; // ✅ dùng cho ETag của snapshot nội dung
+    private Long version; // ✅ gửi lại khi PATCH để phát hiện sửa đồng thời
 }
\ No newline at end of file
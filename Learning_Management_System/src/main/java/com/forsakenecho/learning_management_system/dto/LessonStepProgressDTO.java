@@ -0,0 +1,24 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import com.forsakenecho.learning_management_system.enums.LessonStep;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+// Trạng thái các bước của một bài học cho sinh viên hiện tại
+@Data
+public class LessonStepProgressDTO {
+    private UUID lessonId;
+    private int stepMask;
+    private List<LessonStep> completedSteps;
+    private boolean allStepsCompleted;
+
+    // Dùng trong JPQL constructor expression
+    public LessonStepProgressDTO(UUID lessonId, int stepMask) {
+        this.lessonId = lessonId;
+        this.stepMask = stepMask;
+        this.completedSteps = LessonStep.fromMask(stepMask);
+        this.allStepsCompleted = (stepMask & LessonStep.ALL_MASK) == LessonStep.ALL_MASK;
+    }
+}
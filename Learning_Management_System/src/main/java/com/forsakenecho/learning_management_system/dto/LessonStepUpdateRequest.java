@@ -0,0 +1,17 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import com.forsakenecho.learning_management_system.enums.LessonStep;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+// Đánh dấu / bỏ đánh dấu các bước của bài học; bước có trong cả hai danh sách được coi là bỏ đánh dấu
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LessonStepUpdateRequest {
+    private Set<LessonStep> completed;
+    private Set<LessonStep> uncompleted;
+}
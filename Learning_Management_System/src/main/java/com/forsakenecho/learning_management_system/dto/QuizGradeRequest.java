@@ -0,0 +1,41 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+// Chấm nhiều câu trắc nghiệm (có thể thuộc nhiều bài học của cùng khóa học) trong một request
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizGradeRequest {
+
+    @NotEmpty(message = "Danh sách câu trả lời không được để trống")
+    @Size(max = 500, message = "Tối đa 500 câu trả lời mỗi lần chấm")
+    private List<@Valid Answer> answers;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Answer {
+        @NotNull(message = "Thiếu lessonId")
+        private UUID lessonId;
+
+        @NotNull(message = "Thiếu questionIndex")
+        @Min(value = 0, message = "questionIndex bắt đầu từ 0")
+        private Integer questionIndex;
+
+        // Chỉ số lựa chọn (0 = A)
+        @NotNull(message = "Thiếu selectedOption")
+        @Min(value = 0, message = "selectedOption bắt đầu từ 0")
+        private Integer selectedOption;
+    }
+}
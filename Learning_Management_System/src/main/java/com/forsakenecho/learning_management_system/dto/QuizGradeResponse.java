@@ -0,0 +1,27 @@
+package com.forsakenecho.learning_management_system.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizGradeResponse {
+    private List<AnswerResult> results; // cùng thứ tự với answers trong request
+    private List<LessonScore> lessons;
+    private int correctCount;
+    private int gradedCount;
+
+    // correct / correctOption = null nếu câu hỏi không có đáp án hợp lệ (không chấm được)
+    public record AnswerResult(UUID lessonId, int questionIndex, int selectedOption, Boolean correct, Integer correctOption) {
+    }
+
+    public record LessonScore(UUID lessonId, int correctCount, int gradedCount, int questionCount) {
+    }
+}
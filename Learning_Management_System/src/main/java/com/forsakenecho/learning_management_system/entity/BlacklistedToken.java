@@ -5,7 +5,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "blacklisted_tokens")
+@Table(name = "blacklisted_tokens", indexes = {
+        @Index(name = "idx_blacklisted_tokens_expiration_time", columnList = "expiration_time")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,6 +1,7 @@
 package com.forsakenecho.learning_management_system.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,8 +19,9 @@ import java.util.UUID;
 public class Comment {
     @Id
     @GeneratedValue
-    @Column(columnDefinition = "CHAR(36)")
-    @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.VARCHAR)
+    @UuidGenerator(algorithm = UuidV7Generator.class) // ✅ UUIDv7: tăng dần theo thời gian
+    @Column(columnDefinition = "BINARY(16)")
+    @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.BINARY)
     private UUID id;
 
     @ManyToOne
@@ -0,0 +1,100 @@
+package com.forsakenecho.learning_management_system.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Nén các trường nội dung dài của Lesson (markdown do AI sinh) trước khi lưu vào cột LONGBLOB.
+ * Định dạng: [0x00][version][độ dài gốc 4 byte][deflate raw]. Văn bản UTF-8 không bao giờ bắt đầu bằng 0x00,
+ * nên dòng cũ (lưu nguyên văn trước khi có converter) vẫn đọc được như chuỗi UTF-8 thường.
+ * Chuỗi ngắn hơn min-bytes, hoặc khi tắt lesson.content-compression.enabled, được lưu nguyên văn.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    static final byte MARKER = 0x00;
+    static final byte FORMAT_DEFLATE_V1 = 1;
+    private static final int HEADER_LENGTH = 6;
+
+    @Value("${lesson.content-compression.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${lesson.content-compression.min-bytes:512}")
+    private int minBytes = 512;
+
+    @Value("${lesson.content-compression.level:6}")
+    private int level = 6;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        byte[] plain = attribute.getBytes(StandardCharsets.UTF_8);
+        if (!enabled || plain.length < minBytes) {
+            return plain;
+        }
+
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(plain);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length / 3 + HEADER_LENGTH);
+            out.write(MARKER);
+            out.write(FORMAT_DEFLATE_V1);
+            out.writeBytes(ByteBuffer.allocate(4).putInt(plain.length).array());
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            // Không nén được (nội dung đã ngẫu nhiên) -> lưu nguyên văn
+            return out.size() < plain.length ? out.toByteArray() : plain;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] dbData) {
+        if (dbData == null) {
+            return null;
+        }
+        if (dbData.length < HEADER_LENGTH || dbData[0] != MARKER) {
+            return new String(dbData, StandardCharsets.UTF_8); // dòng cũ / chuỗi ngắn lưu nguyên văn
+        }
+        if (dbData[1] != FORMAT_DEFLATE_V1) {
+            throw new IllegalStateException("Unsupported lesson content format version: " + dbData[1]);
+        }
+
+        int length = ByteBuffer.wrap(dbData, 2, 4).getInt();
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(dbData, HEADER_LENGTH, dbData.length - HEADER_LENGTH);
+            byte[] plain = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(plain, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new IllegalStateException("Corrupted lesson content: expected " + length + " bytes, got " + read);
+            }
+            return new String(plain, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted lesson content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.forsakenecho.learning_management_system.enums.CourseCategory;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,6 +18,12 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        // ✅ Index cho phân trang keyset (createdAt DESC, id DESC)
+        @Index(name = "idx_course_visible_created", columnList = "visible, created_at, id"),
+        @Index(name = "idx_course_creator_created", columnList = "creator_id, created_at, id"),
+        @Index(name = "idx_course_created", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,8 +31,9 @@ import java.util.UUID;
 public class Course {
     @Id
     @GeneratedValue
-    @Column(columnDefinition = "CHAR(36)")
-    @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.VARCHAR)
+    @UuidGenerator(algorithm = UuidV7Generator.class) // ✅ UUIDv7: tăng dần theo thời gian
+    @Column(columnDefinition = "BINARY(16)")
+    @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.BINARY)
     private UUID id;
 
     private String title;
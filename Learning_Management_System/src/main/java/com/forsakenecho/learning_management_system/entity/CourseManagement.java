@@ -3,6 +3,7 @@ package com.forsakenecho.learning_management_system.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.forsakenecho.learning_management_system.enums.CourseAccessType;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,6 +14,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        // ✅ Cho NOT EXISTS ở explore và truy vấn "khóa học đã mua" theo user
+        @Index(name = "idx_cm_user_access_course", columnList = "user_id, access_type, course_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,8 +25,9 @@ import java.util.UUID;
 public class CourseManagement {
     @Id
     @GeneratedValue
-    @Column(columnDefinition = "CHAR(36)")
-    @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.VARCHAR)
+    @UuidGenerator(algorithm = UuidV7Generator.class) // ✅ UUIDv7: tăng dần theo thời gian
+    @Column(columnDefinition = "BINARY(16)")
+    @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.BINARY)
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY) // Thêm fetch type LAZY để tối ưu
@@ -0,0 +1,46 @@
+package com.forsakenecho.learning_management_system.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Thống kê của một khóa học (đánh giá, lượt mua, số bài học), cập nhật tăng dần khi ghi
+ * để trang catalog không phải đếm/tính trung bình từng khóa học.
+ * Bảng rating / course_management / lesson vẫn là nguồn gốc; job đối soát sửa lệch định kỳ.
+ */
+@Entity
+@Table(name = "course_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseStats {
+    @Id
+    @Column(name = "course_id", columnDefinition = "BINARY(16)")
+    @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.BINARY)
+    private UUID courseId;
+
+    @Column(nullable = false)
+    private long ratingCount;
+
+    @Column(nullable = false)
+    private long ratingSum; // tổng điểm, trung bình = ratingSum / ratingCount
+
+    @Column(nullable = false)
+    private long enrollmentCount;
+
+    @Column(nullable = false)
+    private int lessonCount;
+
+    private LocalDateTime updatedAt;
+
+    public Double getRatingAverage() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : null;
+    }
+}
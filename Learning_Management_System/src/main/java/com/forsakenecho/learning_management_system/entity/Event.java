@@ -1,12 +1,16 @@
 package com.forsakenecho.learning_management_system.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.*;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_event_timestamp", columnList = "timestamp, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -15,6 +19,7 @@ import java.util.UUID;
 public class Event {
     @Id
     @GeneratedValue
+    @UuidGenerator(algorithm = UuidV7Generator.class) // ✅ UUIDv7: tăng dần theo thời gian
     @Column(columnDefinition = "CHAR(36)")
     @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.VARCHAR)
     private UUID id;
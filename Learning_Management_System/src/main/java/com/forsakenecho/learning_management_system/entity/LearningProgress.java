@@ -3,6 +3,7 @@ package com.forsakenecho.learning_management_system.entity;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.*;
 import org.hibernate.annotations.JdbcTypeCode;
 
@@ -22,8 +23,9 @@ public class LearningProgress {
 
     @Id
     @GeneratedValue
-    @Column(columnDefinition = "CHAR(36)")
-    @JdbcTypeCode(java.sql.Types.VARCHAR)
+    @UuidGenerator(algorithm = UuidV7Generator.class) // ✅ UUIDv7: tăng dần theo thời gian
+    @Column(columnDefinition = "BINARY(16)")
+    @JdbcTypeCode(java.sql.Types.BINARY)
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -41,8 +43,8 @@ public class LearningProgress {
     @Builder.Default
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "completed_lessons", joinColumns = @JoinColumn(name = "progress_id"))
-    @Column(name = "lesson_id", columnDefinition = "CHAR(36)")
-    @JdbcTypeCode(java.sql.Types.VARCHAR)
+    @Column(name = "lesson_id", columnDefinition = "BINARY(16)")
+    @JdbcTypeCode(java.sql.Types.BINARY)
     private Set<UUID> completedLessonIds = new HashSet<>();
 
     private int completedLessons;
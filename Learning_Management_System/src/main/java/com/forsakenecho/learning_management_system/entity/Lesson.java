@@ -2,16 +2,19 @@ package com.forsakenecho.learning_management_system.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.JdbcTypeCode; // Import này cho @JdbcTypeCode
 import java.sql.Types; // Import này cho Types.VARCHAR
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 @Entity
@@ -19,11 +22,13 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate // ✅ UPDATE chỉ ghi các cột thực sự thay đổi (không ghi lại 5 cột nội dung lớn khi chỉ sửa tiêu đề)
 public class Lesson {
     @Id
     @GeneratedValue // Sử dụng GenerationType.UUID hoặc AUTO tùy theo cấu hình Hibernate của bạn
-    @Column(columnDefinition = "CHAR(36)") // Đảm bảo kiểu cột phù hợp với UUID
-    @JdbcTypeCode(Types.VARCHAR) // Đảm bảo Hibernate map UUID sang VARCHAR/CHAR(36)
+    @UuidGenerator(algorithm = UuidV7Generator.class) // ✅ UUIDv7: tăng dần theo thời gian
+    @Column(columnDefinition = "BINARY(16)")
+    @JdbcTypeCode(Types.BINARY)
     private UUID id;
 
     @Column(nullable = false)
@@ -42,18 +47,27 @@ public class Lesson {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    // 5 bước nội dung
-    @Column(columnDefinition = "LONGTEXT") // Dùng TEXT cho các trường nội dung có thể dài
+    // 5 bước nội dung: lưu nén (LONGBLOB) qua CompressedTextConverter, đọc được cả dòng cũ chưa nén
+    @Column(columnDefinition = "LONGBLOB")
+    @Convert(converter = CompressedTextConverter.class)
     private String recallQuestion;
-    @Column(columnDefinition = "LONGTEXT")
+    @Column(columnDefinition = "LONGBLOB")
+    @Convert(converter = CompressedTextConverter.class)
     private String material;
-    @Column(columnDefinition = "LONGTEXT")
+    @Column(columnDefinition = "LONGBLOB")
+    @Convert(converter = CompressedTextConverter.class)
     private String shortAnswer;
-    @Column(columnDefinition = "LONGTEXT")
+    @Column(columnDefinition = "LONGBLOB")
+    @Convert(converter = CompressedTextConverter.class)
     private String multipleChoice;
-    @Column(columnDefinition = "LONGTEXT")
+    @Column(columnDefinition = "LONGBLOB")
+    @Convert(converter = CompressedTextConverter.class)
     private String summaryTask;
 
+    // ✅ Đáp án trắc nghiệm đã parse sẵn từ multipleChoice (QuizAnswerKey: 1 byte / câu), null = chưa parse
+    @Column(name = "answer_key", columnDefinition = "VARBINARY(255)")
+    private byte[] answerKey;
+
     // Các trường trạng thái hoàn thành cần được thêm vào Entity
     private boolean isRecallQuestionCompleted;
     private boolean isMaterialCompleted;
@@ -62,18 +76,29 @@ public class Lesson {
     private boolean isSummaryTaskCompleted;
     private boolean isLessonCompleted; // Trạng thái hoàn thành tổng thể của bài học
 
-    // Thứ tự bài học trong khóa học
+    // Thứ tự bài học trong khóa học (số thứ tự hiển thị 1, 2, 3...; được đồng bộ lại khi rebalance)
     @Column(nullable = false)
     private int lessonOrder;
 
+    // ✅ Khóa sắp xếp có khoảng trống (bước LessonOrderService.GAP): di chuyển bài học chỉ ghi 1 dòng
+    @Column(name = "sort_key", nullable = false)
+    private long sortKey;
+
+    // ✅ Khóa lạc quan: hai giáo viên sửa cùng lúc thì bản lưu sau nhận 409 thay vì ghi đè
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // ✅ Cắt về micro giây = độ chính xác của DATETIME(6), để updatedAt trong bộ nhớ khớp giá trị đọc lại từ DB
+    // (ETag của snapshot nội dung bài học suy ra từ updatedAt)
     @PrePersist
     protected void onCreate() {
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        this.updatedAt = this.createdAt;
     }
 
     @PreUpdate
     protected void onUpdate() {
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.forsakenecho.learning_management_system.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Trạng thái 5 bước của một bài học cho từng sinh viên (bit i = LessonStep.values()[i] đã xong)
+// Ghi bằng một câu upsert OR/AND NOT nguyên tử (LessonStepProgressRepository.applySteps)
+@Entity
+@Table(name = "lesson_step_progress",
+        uniqueConstraints = @UniqueConstraint(name = "uk_step_progress_student_lesson", columnNames = {"student_id", "lesson_id"}),
+        // Cả khóa học của một sinh viên đọc bằng một lần quét index (index phủ luôn lesson_id, step_mask)
+        indexes = @Index(name = "idx_step_progress_student_course", columnList = "student_id, course_id, lesson_id, step_mask"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LessonStepProgress {
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator(algorithm = UuidV7Generator.class) // ✅ UUIDv7: tăng dần theo thời gian
+    @Column(columnDefinition = "BINARY(16)")
+    @JdbcTypeCode(Types.BINARY)
+    private UUID id;
+
+    @Column(name = "student_id", nullable = false, columnDefinition = "CHAR(36)")
+    @JdbcTypeCode(Types.VARCHAR)
+    private UUID studentId;
+
+    @Column(name = "course_id", nullable = false, columnDefinition = "BINARY(16)")
+    @JdbcTypeCode(Types.BINARY)
+    private UUID courseId;
+
+    @Column(name = "lesson_id", nullable = false, columnDefinition = "BINARY(16)")
+    @JdbcTypeCode(Types.BINARY)
+    private UUID lessonId;
+
+    @Column(name = "step_mask", nullable = false)
+    private int stepMask;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -3,6 +3,7 @@ package com.forsakenecho.learning_management_system.entity;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.forsakenecho.learning_management_system.enums.NotificationType;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -14,8 +15,9 @@ import java.util.UUID;
 public class Notification {
     @Id
     @GeneratedValue
-    @Column(columnDefinition = "CHAR(36)")
-    @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.VARCHAR)
+    @UuidGenerator(algorithm = UuidV7Generator.class) // ✅ UUIDv7: tăng dần theo thời gian
+    @Column(columnDefinition = "BINARY(16)")
+    @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.BINARY)
     private UUID id;
 
     private String recipientEmail;
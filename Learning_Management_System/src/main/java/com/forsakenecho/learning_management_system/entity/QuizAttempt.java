@@ -0,0 +1,57 @@
+package com.forsakenecho.learning_management_system.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Một lần trả lời một câu trắc nghiệm (ghi theo lô bởi QuizAttemptWriter)
+// Lưu id thuần (không @ManyToOne) để insert batch không cần load user / lesson; xóa bài học không bị chặn bởi FK
+@Entity
+@Table(name = "quiz_attempt", indexes = {
+        @Index(name = "idx_quiz_attempt_student_lesson", columnList = "student_id, lesson_id, attempted_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QuizAttempt {
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator(algorithm = UuidV7Generator.class) // ✅ UUIDv7: tăng dần theo thời gian
+    @Column(columnDefinition = "BINARY(16)")
+    @JdbcTypeCode(Types.BINARY)
+    private UUID id;
+
+    @Column(name = "student_id", nullable = false, columnDefinition = "CHAR(36)")
+    @JdbcTypeCode(Types.VARCHAR)
+    private UUID studentId;
+
+    @Column(name = "course_id", nullable = false, columnDefinition = "BINARY(16)")
+    @JdbcTypeCode(Types.BINARY)
+    private UUID courseId;
+
+    @Column(name = "lesson_id", nullable = false, columnDefinition = "BINARY(16)")
+    @JdbcTypeCode(Types.BINARY)
+    private UUID lessonId;
+
+    @Column(nullable = false)
+    private int questionIndex;
+
+    @Column(nullable = false)
+    private int selectedOption;
+
+    @Column(nullable = false)
+    private boolean correct;
+
+    @Column(name = "attempted_at", nullable = false)
+    private LocalDateTime attemptedAt;
+}
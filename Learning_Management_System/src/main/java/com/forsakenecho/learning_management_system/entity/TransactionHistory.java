@@ -2,6 +2,7 @@ package com.forsakenecho.learning_management_system.entity;
 
 import com.forsakenecho.learning_management_system.enums.TransactionType;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
@@ -10,6 +11,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_transaction_user_created", columnList = "user_id, created_at, id")
+})
 @Getter
 @Setter
 @Builder
@@ -19,6 +23,7 @@ public class TransactionHistory {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidGenerator(algorithm = UuidV7Generator.class) // ✅ UUIDv7: tăng dần theo thời gian
     private UUID id;
 
     @ManyToOne(optional = false)
@@ -1,8 +1,10 @@
 package com.forsakenecho.learning_management_system.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.forsakenecho.learning_management_system.enums.Role;
 import com.forsakenecho.learning_management_system.enums.Status;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -17,7 +19,10 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_users_created_at", columnList = "created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,6 +31,7 @@ import java.util.UUID;
 public class User implements UserDetails {
     @Id
     @GeneratedValue
+    @UuidGenerator(algorithm = UuidV7Generator.class) // ✅ UUIDv7: tăng dần theo thời gian
     @Column(columnDefinition = "CHAR(36)")
     @org.hibernate.annotations.JdbcTypeCode(java.sql.Types.VARCHAR)
     private UUID id;
@@ -44,6 +50,12 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private BigDecimal balance = BigDecimal.ZERO;
 
+    // ✅ "Epoch" thu hồi token: tăng lên thì mọi JWT phát hành trước đó mất hiệu lực
+    // Chỉ thay đổi qua UserRepository.incrementTokenVersion (không ghi đè khi save entity)
+    @JsonIgnore
+    @Column(columnDefinition = "INT DEFAULT 0", nullable = false, updatable = false)
+    private int tokenVersion;
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,48 @@
+package com.forsakenecho.learning_management_system.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Sinh UUID version 7 (RFC 9562): 48 bit thời gian (ms) + 12 bit bộ đếm + 62 bit ngẫu nhiên.
+ * Id tăng dần theo thời gian nên insert luôn nối vào cuối clustered index (không tách trang như UUID ngẫu nhiên),
+ * cả khi lưu BINARY(16) lẫn CHAR(36) (chuỗi hex cũng sắp xếp đúng thứ tự thời gian).
+ * Dùng: {@code @UuidGenerator(algorithm = UuidV7Generator.class)}.
+ */
+public class UuidV7Generator implements UuidValueGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static long lastMillis = -1;
+    private static int counter;
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return generate();
+    }
+
+    public static UUID generate() {
+        long millis;
+        int sequence;
+        synchronized (UuidV7Generator.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                counter = RANDOM.nextInt(1 << 11); // bắt đầu ở nửa dưới để còn chỗ tăng trong cùng ms
+            } else if (++counter > 0xFFF) {
+                // Hết bộ đếm trong 1 ms (hoặc đồng hồ lùi) -> mượn ms kế tiếp, giữ thứ tự tăng
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+
+        long msb = (millis << 16) | (0x7L << 12) | sequence;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L; // variant 10
+        return new UUID(msb, lsb);
+    }
+}
@@ -0,0 +1,40 @@
+package com.forsakenecho.learning_management_system.enums;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// 5 bước của một bài học; mỗi bước là 1 bit trong LessonStepProgress.stepMask (thứ tự khai báo = vị trí bit)
+public enum LessonStep {
+    RECALL_QUESTION,
+    MATERIAL,
+    SHORT_ANSWER,
+    MULTIPLE_CHOICE,
+    SUMMARY_TASK;
+
+    public static final int ALL_MASK = (1 << values().length) - 1;
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public static int maskOf(Collection<LessonStep> steps) {
+        int mask = 0;
+        if (steps != null) {
+            for (LessonStep step : steps) {
+                mask |= step.bit();
+            }
+        }
+        return mask;
+    }
+
+    public static List<LessonStep> fromMask(int mask) {
+        List<LessonStep> steps = new ArrayList<>();
+        for (LessonStep step : values()) {
+            if ((mask & step.bit()) != 0) {
+                steps.add(step);
+            }
+        }
+        return steps;
+    }
+}
@@ -0,0 +1,17 @@
+package com.forsakenecho.learning_management_system.event;
+
+import java.util.UUID;
+
+/**
+ * Phát ra mỗi khi một khóa học được tạo, sửa, xóa hoặc đổi trạng thái hiển thị.
+ * Các cấu trúc in-memory (search index, ...) lắng nghe để cập nhật tăng dần.
+ */
+public record CourseChangedEvent(UUID courseId, ChangeType type) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        VISIBILITY
+    }
+}
@@ -0,0 +1,9 @@
+package com.forsakenecho.learning_management_system.event;
+
+import java.util.UUID;
+
+/**
+ * Phát ra khi sinh viên mua một khóa học (đã có dòng CourseManagement PURCHASED).
+ */
+public record CoursePurchasedEvent(UUID userId, UUID courseId) {
+}
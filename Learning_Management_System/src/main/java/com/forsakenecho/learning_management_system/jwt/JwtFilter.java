@@ -1,7 +1,8 @@
 package com.forsakenecho.learning_management_system.jwt;
 
 // ... các imports khác
-import com.forsakenecho.learning_management_system.repository.BlacklistedTokenRepository;
+import com.forsakenecho.learning_management_system.entity.User;
+import com.forsakenecho.learning_management_system.enums.Status;
 // Đảm bảo import đúng các lớp ngoại lệ của JJWT
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
@@ -12,6 +13,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -28,8 +30,13 @@ import java.io.IOException;
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final UserDetailsService userDetailsService;
-    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final TokenRevocationCache tokenRevocationCache;
+
+    // So epoch trong token với user.tokenVersion (logout everywhere / admin khóa)
+    @Value("${jwt.revocation.user-epoch-enabled:true}")
+    private boolean userEpochEnabled;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -48,20 +55,14 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         final String authorizationHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
+        ParsedToken parsedToken = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-
-            String tokenToCheck = jwtUtil.hashToken(jwt);
-            if (blacklistedTokenRepository.existsByTokenHash(tokenToCheck)) {
-                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token is blacklisted");
-                return;
-            }
+            String jwt = authorizationHeader.substring(7);
 
+            // ✅ Parse + kiểm tra chữ ký một lần, các request sau lấy từ cache
             try {
-                username = jwtUtil.extractUsername(jwt);
+                parsedToken = verifiedTokenCache.verify(jwt);
             } catch (SignatureException | MalformedJwtException | UnsupportedJwtException |
                      IllegalArgumentException e) {
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT Token: " + e.getMessage());
@@ -70,11 +71,30 @@ public class JwtFilter extends OncePerRequestFilter {
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "JWT Token has expired");
                 return;
             }
+
+            // ✅ Kiểm tra qua bộ nhớ đệm thay vì truy vấn DB mỗi request
+            if (tokenRevocationCache.isRevoked(parsedToken.tokenHash())) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token is blacklisted");
+                return;
+            }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.isTokenValid(jwt, userDetails)) {
+        if (parsedToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = this.userDetailsService.loadUserByUsername(parsedToken.username());
+            // ✅ Tài khoản bị khóa mất quyền truy cập ngay (cache đã được invalidate khi admin khóa)
+            if (userDetails instanceof User user && user.getStatus() == Status.BLOCKED) {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN, "Account is blocked");
+                return;
+            }
+            // ✅ Token phát hành trước lần tăng tokenVersion gần nhất thì đã bị thu hồi
+            if (userEpochEnabled && userDetails instanceof User user) {
+                int tokenVersion = parsedToken.tokenVersion() != null ? parsedToken.tokenVersion() : 0;
+                if (tokenVersion != user.getTokenVersion()) {
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token has been revoked");
+                    return;
+                }
+            }
+            if (jwtUtil.isTokenValid(parsedToken, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -1,6 +1,10 @@
 package com.forsakenecho.learning_management_system.jwt;
 
 
+import com.forsakenecho.learning_management_system.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -18,27 +22,46 @@ import java.util.Date;
 public class JwtUtil {
     private static final String SECRET = "your-secret-key-must-be-at-least-32-characters-long-0975266380-9902!";
     private static final Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    // ✅ Parser dựng một lần, dùng chung (thread-safe)
+    private static final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
     private final long jwtExpiration = 86400000; // 1 day
 
 
     // sinh token
     public  String generateToken(UserDetails user) {
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(user.getUsername()) //username là chủ thể của token
                 .claim("role",user.getAuthorities().iterator().next().getAuthority()) //lấy role của người dùng(1 role)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis()+jwtExpiration))
+                .setExpiration(new Date(System.currentTimeMillis()+jwtExpiration));
+        if (user instanceof User u) {
+            builder.claim("tv", u.getTokenVersion()); // ✅ epoch thu hồi tại thời điểm phát hành
+        }
+        return builder
                 .signWith(SignatureAlgorithm.HS512, key)
                 .compact();
     }
 
+    // ✅ Parse + xác thực chữ ký một lần, trả về mọi thông tin cần dùng
+    public ParsedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return new ParsedToken(
+                claims.getSubject(),
+                claims.get("role", String.class),
+                hashToken(token),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                claims.get("tv", Integer.class)
+        );
+    }
+
     // giải mã token -> lấy username
     public String extractUsername(String token) {
-        return Jwts.parser().setSigningKey(key).parseClaimsJws(token).getBody().getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public Date extractExpiration(String token) {
-        return Jwts.parser().setSigningKey(key).parseClaimsJws(token).getBody().getExpiration();
+        return parser.parseClaimsJws(token).getBody().getExpiration();
     }
 
     public boolean isTokenExpired(String token) {
@@ -52,6 +75,11 @@ public class JwtUtil {
         return  (extractUsername(token).equals(user.getUsername()));
     }
 
+    // xác thực token đã parse sẵn, không giải mã lại
+    public boolean isTokenValid(ParsedToken token, UserDetails user) {
+        return token.username().equals(user.getUsername()) && !token.isExpired();
+    }
+
     // Phương thức để tạo hash của token
     public String hashToken(String token) {
         try {
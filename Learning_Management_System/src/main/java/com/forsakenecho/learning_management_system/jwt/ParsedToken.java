@@ -0,0 +1,20 @@
+package com.forsakenecho.learning_management_system.jwt;
+
+import java.time.Instant;
+
+/**
+ * Kết quả của một lần parse + xác thực chữ ký JWT, dùng lại cho các bước sau trong JwtFilter
+ * để không phải giải mã token nhiều lần.
+ */
+public record ParsedToken(
+        String username,
+        String role,
+        String tokenHash,
+        Instant issuedAt,
+        Instant expiration,
+        Integer tokenVersion
+) {
+    public boolean isExpired() {
+        return expiration != null && !expiration.isAfter(Instant.now());
+    }
+}
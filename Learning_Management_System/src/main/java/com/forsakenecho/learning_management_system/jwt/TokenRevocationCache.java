@@ -0,0 +1,166 @@
+package com.forsakenecho.learning_management_system.jwt;
+
+import com.forsakenecho.learning_management_system.entity.BlacklistedToken;
+import com.forsakenecho.learning_management_system.repository.BlacklistedTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bộ nhớ đệm các token đã bị thu hồi (logout), đặt trước bảng blacklisted_tokens.
+ * - Bloom filter loại nhanh phần lớn token hợp lệ mà không cần tra cứu thêm.
+ * - Map chính xác (hash -> thời điểm hết hạn) xác nhận các trường hợp Bloom filter báo "có thể".
+ * DB vẫn là nguồn dữ liệu gốc: mỗi node đồng bộ định kỳ các dòng mới, nên một lần logout
+ * ở node khác sẽ có hiệu lực tại node này sau tối đa jwt.revocation.sync-interval-ms.
+ */
+@Component
+public class TokenRevocationCache {
+
+    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final int expectedTokens;
+    private final long syncOverlapMs;
+
+    private volatile Snapshot snapshot;
+    private volatile boolean loaded = false;
+    private volatile LocalDateTime lastSync;
+
+    public TokenRevocationCache(BlacklistedTokenRepository blacklistedTokenRepository,
+                                @Value("${jwt.revocation.expected-tokens:100000}") int expectedTokens,
+                                @Value("${jwt.revocation.sync-overlap-ms:60000}") long syncOverlapMs) {
+        this.blacklistedTokenRepository = blacklistedTokenRepository;
+        this.expectedTokens = expectedTokens;
+        this.syncOverlapMs = syncOverlapMs;
+        this.snapshot = new Snapshot(new BloomFilter(expectedTokens, 0.01), new ConcurrentHashMap<>());
+    }
+
+    // Kiểm tra token (theo hash SHA-256 hex) đã bị thu hồi chưa
+    public boolean isRevoked(String tokenHash) {
+        if (!loaded) {
+            // Chưa nạp xong từ DB -> hỏi thẳng DB để không bỏ sót
+            return blacklistedTokenRepository.existsByTokenHash(tokenHash);
+        }
+        Snapshot current = snapshot;
+        if (!current.bloom.mightContain(tokenHash)) {
+            return false;
+        }
+        LocalDateTime expiration = current.revoked.get(tokenHash);
+        return expiration != null && expiration.isAfter(LocalDateTime.now());
+    }
+
+    // Gọi sau khi đã lưu BlacklistedToken vào DB
+    public void revoke(String tokenHash, LocalDateTime expirationTime) {
+        Snapshot current = snapshot;
+        current.revoked.put(tokenHash, expirationTime);
+        current.bloom.put(tokenHash);
+    }
+
+    // ✅ Nạp toàn bộ token còn hạn khi ứng dụng khởi động xong
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // Định kỳ dựng lại từ đầu để bỏ các token đã hết hạn và làm mới Bloom filter
+    @Scheduled(initialDelayString = "${jwt.revocation.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${jwt.revocation.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<BlacklistedToken> tokens = blacklistedTokenRepository.findByExpirationTimeAfter(startedAt);
+
+        Map<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+        tokens.forEach(t -> revoked.put(t.getTokenHash(), t.getExpirationTime()));
+        // Giữ lại các token thu hồi cục bộ trong lúc đang truy vấn DB
+        snapshot.revoked.forEach((hash, exp) -> {
+            if (exp.isAfter(startedAt)) {
+                revoked.putIfAbsent(hash, exp);
+            }
+        });
+
+        BloomFilter bloom = new BloomFilter(Math.max(expectedTokens, revoked.size() * 2), 0.01);
+        revoked.keySet().forEach(bloom::put);
+
+        snapshot = new Snapshot(bloom, revoked);
+        lastSync = startedAt;
+        loaded = true;
+        System.out.println("Token revocation cache rebuilt with " + revoked.size() + " entries");
+    }
+
+    // ✅ Đồng bộ tăng dần các token bị thu hồi ở node khác
+    @Scheduled(initialDelayString = "${jwt.revocation.sync-interval-ms:10000}",
+            fixedDelayString = "${jwt.revocation.sync-interval-ms:10000}")
+    public synchronized void syncFromDatabase() {
+        if (!loaded) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        // Lùi lại một khoảng để bù sai lệch đồng hồ giữa các node
+        LocalDateTime since = lastSync.minusNanos(syncOverlapMs * 1_000_000);
+        List<BlacklistedToken> tokens =
+                blacklistedTokenRepository.findByBlacklistedAtAfterAndExpirationTimeAfter(since, startedAt);
+        tokens.forEach(t -> revoke(t.getTokenHash(), t.getExpirationTime()));
+        lastSync = startedAt;
+    }
+
+    private record Snapshot(BloomFilter bloom, Map<String, LocalDateTime> revoked) {
+    }
+
+    /**
+     * Bloom filter đơn giản trên AtomicLongArray, dùng double hashing từ chính chuỗi SHA-256 hex.
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitSize;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitSize = Math.max(64, m);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((bitSize + 63) / 64));
+        }
+
+        void put(String hexHash) {
+            long h1 = hash1(hexHash);
+            long h2 = hash2(hexHash);
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(h1 + i * h2, bitSize);
+                long mask = 1L << (index & 63);
+                bits.accumulateAndGet((int) (index >>> 6), mask, (a, b) -> a | b);
+            }
+        }
+
+        boolean mightContain(String hexHash) {
+            long h1 = hash1(hexHash);
+            long h2 = hash2(hexHash);
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(h1 + i * h2, bitSize);
+                if ((bits.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Chuỗi đầu vào đã là SHA-256 nên chỉ cần cắt lấy 2 đoạn 64 bit
+        private static long hash1(String hexHash) {
+            return hexHash.length() >= 16
+                    ? Long.parseUnsignedLong(hexHash.substring(0, 16), 16)
+                    : hexHash.hashCode();
+        }
+
+        private static long hash2(String hexHash) {
+            long h = hexHash.length() >= 32
+                    ? Long.parseUnsignedLong(hexHash.substring(16, 32), 16)
+                    : hexHash.hashCode() * 31L;
+            return h | 1; // luôn lẻ để các vị trí không trùng nhau
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.forsakenecho.learning_management_system.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Cache các JWT đã xác thực chữ ký. Một bearer token chỉ bị parse, kiểm tra HS512 và băm SHA-256
+ * một lần; các request sau dùng lại ParsedToken cho tới khi token hết hạn.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, ParsedToken> cache;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              @Value("${jwt.verified-cache.max-size:10000}") long maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, ParsedToken>() {
+                    // Mỗi entry sống đúng tới thời điểm exp của token
+                    @Override
+                    public long expireAfterCreate(String token, ParsedToken parsed, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), parsed.expiration()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, ParsedToken parsed, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, ParsedToken parsed, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Trả về token đã xác thực; ném các ngoại lệ của JJWT (hết hạn, sai chữ ký...) như JwtUtil.parse.
+     */
+    public ParsedToken verify(String token) {
+        ParsedToken cached = cache.getIfPresent(token);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            cache.invalidate(token);
+        }
+        ParsedToken parsed = jwtUtil.parse(token);
+        if (parsed.expiration() != null) { // token không có exp thì không cache
+            cache.put(token, parsed);
+        }
+        return parsed;
+    }
+}
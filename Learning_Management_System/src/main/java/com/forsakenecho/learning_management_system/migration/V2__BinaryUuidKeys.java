@@ -0,0 +1,130 @@
+package com.forsakenecho.learning_management_system.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Chuyển khóa chính (và khóa ngoại trỏ tới) của các bảng khóa học từ CHAR(36) sang BINARY(16).
+ * DB tạo mới bởi Hibernate đã là BINARY(16) nên migration này không làm gì.
+ * Mỗi cột được đổi tại chỗ (CHAR -> VARBINARY -> UUID_TO_BIN -> BINARY(16)) để giữ nguyên PK và các index.
+ * MySQL không rollback được DDL: nên chạy trong maintenance window và có backup.
+ * Nếu dừng giữa chừng, chạy lại sẽ bỏ qua các cột đã đổi; khóa ngoại bị thiếu được Hibernate (ddl-auto=update)
+ * tạo lại ở lần khởi động sau.
+ */
+@Component
+public class V2__BinaryUuidKeys extends BaseJavaMigration {
+
+    // Bảng -> các cột UUID cần đổi (id + khóa ngoại tới course/lesson/comment/learning_progress)
+    private static final Map<String, List<String>> COLUMNS = Map.of(
+            "course", List.of("id"),
+            "lesson", List.of("id", "course_id"),
+            "course_management", List.of("id", "course_id"),
+            "comment", List.of("id", "course_id", "parent_id"),
+            "notifications", List.of("id"),
+            "learning_progress", List.of("id", "course_id"),
+            "completed_lessons", List.of("progress_id", "lesson_id"),
+            "rating", List.of("id", "course_id"),
+            "course_stats", List.of("course_id")
+    );
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        Set<String> targets = COLUMNS.entrySet().stream()
+                .flatMap(e -> e.getValue().stream().map(column -> e.getKey() + "." + column))
+                .collect(Collectors.toSet());
+
+        List<String> pending = targets.stream()
+                .filter(target -> isCharColumn(jdbcTemplate, target))
+                .sorted()
+                .toList();
+        if (pending.isEmpty()) {
+            System.out.println("UUID columns already BINARY(16), nothing to migrate");
+            return;
+        }
+
+        // 1. Gỡ khóa ngoại liên quan (MySQL không cho đổi kiểu cột đang nằm trong FK)
+        List<ForeignKey> foreignKeys = findForeignKeys(jdbcTemplate).stream()
+                .filter(fk -> targets.contains(fk.column()) || targets.contains(fk.referencedColumn()))
+                .toList();
+        for (ForeignKey fk : foreignKeys) {
+            if (!targets.contains(fk.column()) || !targets.contains(fk.referencedColumn())) {
+                // Hai đầu FK phải cùng kiểu: bảng lạ trỏ vào các bảng này thì dừng trước khi đổi gì
+                throw new IllegalStateException("Foreign key " + fk.name() + " (" + fk.column() + " -> "
+                        + fk.referencedColumn() + ") is not covered by the BINARY(16) migration");
+            }
+        }
+        foreignKeys.forEach(fk -> jdbcTemplate.execute(
+                "ALTER TABLE `" + fk.table() + "` DROP FOREIGN KEY `" + fk.name() + "`"));
+
+        // 2. Đổi từng cột tại chỗ
+        for (String target : pending) {
+            String table = target.substring(0, target.indexOf('.'));
+            String column = target.substring(target.indexOf('.') + 1);
+            String nullability = isNullable(jdbcTemplate, table, column) ? "NULL" : "NOT NULL";
+
+            jdbcTemplate.execute("ALTER TABLE `" + table + "` MODIFY `" + column + "` VARBINARY(36) " + nullability);
+            int rows = jdbcTemplate.update("UPDATE `" + table + "` SET `" + column + "` = UUID_TO_BIN(CAST(`"
+                    + column + "` AS CHAR(36))) WHERE LENGTH(`" + column + "`) = 36");
+            jdbcTemplate.execute("ALTER TABLE `" + table + "` MODIFY `" + column + "` BINARY(16) " + nullability);
+            System.out.println("Converted " + target + " to BINARY(16) (" + rows + " rows)");
+        }
+
+        // 3. Tạo lại khóa ngoại với cùng quy tắc ON DELETE / ON UPDATE
+        foreignKeys.forEach(fk -> jdbcTemplate.execute(
+                "ALTER TABLE `" + fk.table() + "` ADD CONSTRAINT `" + fk.name() + "` FOREIGN KEY (`"
+                        + fk.columnName() + "`) REFERENCES `" + fk.referencedTable() + "` (`"
+                        + fk.referencedColumnName() + "`) ON DELETE " + fk.deleteRule()
+                        + " ON UPDATE " + fk.updateRule()));
+    }
+
+    private boolean isCharColumn(JdbcTemplate jdbcTemplate, String target) {
+        List<String> types = jdbcTemplate.queryForList("""
+                        SELECT DATA_TYPE FROM information_schema.columns
+                        WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?
+                        """, String.class,
+                target.substring(0, target.indexOf('.')), target.substring(target.indexOf('.') + 1));
+        return !types.isEmpty() && (types.get(0).equalsIgnoreCase("char") || types.get(0).equalsIgnoreCase("varchar"));
+    }
+
+    private boolean isNullable(JdbcTemplate jdbcTemplate, String table, String column) {
+        return "YES".equalsIgnoreCase(jdbcTemplate.queryForObject("""
+                SELECT IS_NULLABLE FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?
+                """, String.class, table, column));
+    }
+
+    private List<ForeignKey> findForeignKeys(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.query("""
+                SELECT k.CONSTRAINT_NAME, k.TABLE_NAME, k.COLUMN_NAME,
+                       k.REFERENCED_TABLE_NAME, k.REFERENCED_COLUMN_NAME, r.DELETE_RULE, r.UPDATE_RULE
+                FROM information_schema.key_column_usage k
+                JOIN information_schema.referential_constraints r
+                  ON r.CONSTRAINT_SCHEMA = k.CONSTRAINT_SCHEMA AND r.CONSTRAINT_NAME = k.CONSTRAINT_NAME
+                 AND r.TABLE_NAME = k.TABLE_NAME
+                WHERE k.TABLE_SCHEMA = DATABASE() AND k.REFERENCED_TABLE_NAME IS NOT NULL
+                """, (rs, i) -> new ForeignKey(rs.getString(1), rs.getString(2), rs.getString(3),
+                rs.getString(4), rs.getString(5), rs.getString(6), rs.getString(7)));
+    }
+
+    private record ForeignKey(String name, String table, String columnName,
+                              String referencedTable, String referencedColumnName,
+                              String deleteRule, String updateRule) {
+        String column() {
+            return table + "." + columnName;
+        }
+
+        String referencedColumn() {
+            return referencedTable + "." + referencedColumnName;
+        }
+    }
+}
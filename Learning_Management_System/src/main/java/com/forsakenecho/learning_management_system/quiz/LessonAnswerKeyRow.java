@@ -0,0 +1,7 @@
+package com.forsakenecho.learning_management_system.quiz;
+
+import java.util.UUID;
+
+// Đáp án đã parse của một bài học (không đọc cột nội dung), answerKey null = dòng cũ chưa parse
+public record LessonAnswerKeyRow(UUID lessonId, Long version, byte[] answerKey) {
+}
@@ -0,0 +1,7 @@
+package com.forsakenecho.learning_management_system.quiz;
+
+import java.util.UUID;
+
+// (lessonId, version) để kiểm tra đáp án trong cache còn đúng phiên bản bài học hay không
+public record LessonVersionRow(UUID lessonId, Long version) {
+}
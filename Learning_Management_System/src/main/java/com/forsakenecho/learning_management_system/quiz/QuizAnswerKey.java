@@ -0,0 +1,113 @@
+package com.forsakenecho.learning_management_system.quiz;
+
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.util.Arrays;
+
+/**
+ * Đáp án trắc nghiệm của một bài học dạng gọn: mỗi câu hỏi 1 byte = chỉ số lựa chọn đúng (0 = A),
+ * UNKNOWN nếu không xác định được đáp án từ JSON gốc.
+ * Parse một lần khi ghi bài học (Lesson.answerKey), chấm điểm sau đó không cần đọc lại JSON.
+ */
+public final class QuizAnswerKey {
+
+    public static final byte UNKNOWN = -1;
+    public static final QuizAnswerKey EMPTY = new QuizAnswerKey(new byte[0]);
+
+    // AI đôi khi trả JSON dùng nháy đơn như ví dụ trong prompt
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .build();
+
+    private final byte[] correctOptions;
+
+    private QuizAnswerKey(byte[] correctOptions) {
+        this.correctOptions = correctOptions;
+    }
+
+    public static QuizAnswerKey fromBytes(byte[] bytes) {
+        return bytes == null || bytes.length == 0 ? EMPTY : new QuizAnswerKey(bytes.clone());
+    }
+
+    public byte[] toBytes() {
+        return correctOptions.clone();
+    }
+
+    public int questionCount() {
+        return correctOptions.length;
+    }
+
+    // Chỉ số đáp án đúng của câu questionIndex, UNKNOWN nếu không có câu đó / không xác định được
+    public int correctOption(int questionIndex) {
+        if (questionIndex < 0 || questionIndex >= correctOptions.length) {
+            return UNKNOWN;
+        }
+        return correctOptions[questionIndex];
+    }
+
+    /**
+     * Parse JSON multipleChoice: [{"question": "...", "options": ["A", ...], "correctAnswer": "A"}, ...].
+     * correctAnswer có thể là nguyên văn một lựa chọn ("X", "A. Thử lại") hoặc chữ cái ("B", "B.", "b)").
+     * JSON hỏng hoặc không phải mảng -> EMPTY (không có câu nào chấm được).
+     */
+    public static QuizAnswerKey parse(String multipleChoiceJson) {
+        if (multipleChoiceJson == null || multipleChoiceJson.isBlank()) {
+            return EMPTY;
+        }
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(multipleChoiceJson);
+        } catch (Exception e) {
+            System.err.println("Không parse được multipleChoice: " + e.getMessage());
+            return EMPTY;
+        }
+        if (root == null || !root.isArray()) {
+            return EMPTY;
+        }
+
+        int count = Math.min(root.size(), 255);
+        byte[] correct = new byte[count];
+        for (int i = 0; i < count; i++) {
+            correct[i] = (byte) resolveCorrectOption(root.get(i));
+        }
+        return new QuizAnswerKey(correct);
+    }
+
+    private static int resolveCorrectOption(JsonNode question) {
+        JsonNode options = question.path("options");
+        String answer = question.path("correctAnswer").asText("").trim();
+        if (!options.isArray() || options.isEmpty() || answer.isEmpty()) {
+            return UNKNOWN;
+        }
+        int optionCount = Math.min(options.size(), Byte.MAX_VALUE);
+
+        // 1. Trùng nguyên văn một lựa chọn
+        for (int i = 0; i < optionCount; i++) {
+            if (options.get(i).asText("").trim().equalsIgnoreCase(answer)) {
+                return i;
+            }
+        }
+        // 2. Chữ cái đứng đầu: "B", "B.", "B)", "B. Không tạo được nội dung"
+        char letter = Character.toUpperCase(answer.charAt(0));
+        boolean letterOnly = answer.length() == 1
+                || answer.charAt(1) == '.' || answer.charAt(1) == ')' || answer.charAt(1) == ' ';
+        if (letterOnly && letter >= 'A' && letter - 'A' < optionCount) {
+            return letter - 'A';
+        }
+        return UNKNOWN;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof QuizAnswerKey other && Arrays.equals(correctOptions, other.correctOptions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(correctOptions);
+    }
+}
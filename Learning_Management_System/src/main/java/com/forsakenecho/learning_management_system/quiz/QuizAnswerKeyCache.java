@@ -0,0 +1,95 @@
+package com.forsakenecho.learning_management_system.quiz;
+
+import com.forsakenecho.learning_management_system.repository.LessonRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Cache đáp án trắc nghiệm theo bài học, gắn với version của bài học.
+ * Mỗi lần chấm chỉ đọc (id, version) theo khóa chính để biết entry còn đúng không (kể cả khi bài học
+ * được sửa ở node khác); chỉ bài học mới/đã sửa mới đọc lại cột answer_key, không bao giờ parse lại JSON
+ * (trừ dòng cũ chưa có answer_key: parse một lần rồi ghi lại).
+ */
+@Component
+public class QuizAnswerKeyCache {
+
+    private final LessonRepository lessonRepository;
+    private final Cache<UUID, Entry> cache;
+
+    private record Entry(Long version, QuizAnswerKey key) {
+    }
+
+    public QuizAnswerKeyCache(LessonRepository lessonRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${quiz.answer-key-cache.max-size:50000}") long maxSize) {
+        this.lessonRepository = lessonRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "quizAnswerKeyCache");
+    }
+
+    /**
+     * Đáp án của các bài học thuộc courseId. Bài học không tồn tại / không thuộc khóa học không có trong kết quả.
+     */
+    public Map<UUID, QuizAnswerKey> getAll(UUID courseId, Collection<UUID> lessonIds) {
+        Map<UUID, QuizAnswerKey> result = new HashMap<>();
+        if (lessonIds.isEmpty()) {
+            return result;
+        }
+
+        List<UUID> stale = new ArrayList<>();
+        for (LessonVersionRow row : lessonRepository.findVersions(courseId, lessonIds)) {
+            Entry entry = cache.getIfPresent(row.lessonId());
+            if (entry != null && Objects.equals(entry.version(), row.version())) {
+                result.put(row.lessonId(), entry.key());
+            } else {
+                stale.add(row.lessonId());
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            for (LessonAnswerKeyRow row : lessonRepository.findAnswerKeys(courseId, stale)) {
+                QuizAnswerKey key = row.answerKey() != null
+                        ? QuizAnswerKey.fromBytes(row.answerKey())
+                        : backfill(row.lessonId());
+                cache.put(row.lessonId(), new Entry(row.version(), key));
+                result.put(row.lessonId(), key);
+            }
+        }
+        return result;
+    }
+
+    // ✅ Gọi sau khi tạo / sửa bài học (đã có answerKey mới), tránh một lần đọc DB ở lần chấm đầu tiên
+    public void put(UUID lessonId, Long version, byte[] answerKey) {
+        if (answerKey == null) {
+            cache.invalidate(lessonId); // dòng cũ chưa parse: để getAll backfill
+            return;
+        }
+        cache.put(lessonId, new Entry(version, QuizAnswerKey.fromBytes(answerKey)));
+    }
+
+    public void evict(UUID lessonId) {
+        cache.invalidate(lessonId);
+    }
+
+    // Dòng tạo trước khi có cột answer_key: parse multipleChoice một lần rồi lưu lại
+    private QuizAnswerKey backfill(UUID lessonId) {
+        QuizAnswerKey key = QuizAnswerKey.parse(lessonRepository.findMultipleChoice(lessonId).orElse(null));
+        lessonRepository.updateAnswerKey(lessonId, key.toBytes());
+        return key;
+    }
+}
@@ -0,0 +1,93 @@
+package com.forsakenecho.learning_management_system.quiz;
+
+import com.forsakenecho.learning_management_system.entity.QuizAttempt;
+import com.forsakenecho.learning_management_system.repository.QuizAttemptRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Gom các lượt trả lời trắc nghiệm vào hàng đợi trong bộ nhớ và ghi xuống DB theo lô (saveAll + JDBC batch),
+ * thay vì một INSERT cho mỗi câu trả lời trong request chấm điểm.
+ * Hàng đợi đầy -> request hiện tại tự ghi bớt (không bỏ dữ liệu). Khi tắt ứng dụng thì ghi nốt phần còn lại.
+ * Lô ghi lỗi -> ghi lại từng dòng để một dòng hỏng không kéo theo cả lô; dòng vẫn lỗi được đếm ở quiz.attempts.failed.
+ */
+@Component
+public class QuizAttemptWriter {
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final LinkedBlockingQueue<QuizAttempt> queue;
+    private final int batchSize;
+    private final Counter failedCounter;
+
+    public QuizAttemptWriter(QuizAttemptRepository quizAttemptRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${quiz.attempts.queue-capacity:10000}") int queueCapacity,
+                             @Value("${quiz.attempts.batch-size:500}") int batchSize) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+
+        Gauge.builder("quiz.attempts.pending", queue, LinkedBlockingQueue::size)
+                .description("Số lượt trả lời trắc nghiệm đang chờ ghi xuống DB")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("quiz.attempts.failed")
+                .description("Số lượt trả lời trắc nghiệm không ghi được xuống DB (đã bỏ)")
+                .register(meterRegistry);
+    }
+
+    public void enqueue(List<QuizAttempt> attempts) {
+        for (QuizAttempt attempt : attempts) {
+            while (!queue.offer(attempt)) {
+                flush();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.attempts.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        List<QuizAttempt> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                quizAttemptRepository.saveAll(batch); // một transaction, INSERT gom theo hibernate.jdbc.batch_size
+            } catch (Exception e) {
+                System.err.println("Failed to save " + batch.size() + " quiz attempts, retrying one by one: " + e.getMessage());
+                saveOneByOne(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    // Transaction của cả lô đã rollback: ghi lại từng dòng, chỉ bỏ những dòng vẫn lỗi
+    private void saveOneByOne(List<QuizAttempt> batch) {
+        int failed = 0;
+        for (QuizAttempt attempt : batch) {
+            try {
+                // persist ở lần saveAll đã gán id (rollback không xóa): bỏ id để save() persist lại thay vì merge
+                // (merge entity có id sinh tự động nhưng chưa có dòng trong DB -> StaleObjectStateException)
+                attempt.setId(null);
+                quizAttemptRepository.save(attempt);
+            } catch (Exception e) {
+                failed++;
+                System.err.println("Dropped quiz attempt of student " + attempt.getStudentId()
+                        + " (lesson " + attempt.getLessonId() + ", question " + attempt.getQuestionIndex() + "): " + e.getMessage());
+            }
+        }
+        if (failed > 0) {
+            failedCounter.increment(failed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
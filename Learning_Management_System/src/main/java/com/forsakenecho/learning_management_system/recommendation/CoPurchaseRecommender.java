@@ -0,0 +1,228 @@
+package com.forsakenecho.learning_management_system.recommendation;
+
+import com.forsakenecho.learning_management_system.enums.CourseAccessType;
+import com.forsakenecho.learning_management_system.event.CourseChangedEvent;
+import com.forsakenecho.learning_management_system.event.CoursePurchasedEvent;
+import com.forsakenecho.learning_management_system.repository.CourseManagementRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục "học viên mua khóa này cũng mua": đồng xuất hiện item-item giữ trong bộ nhớ,
+ * dựng từ các dòng CourseManagement PURCHASED và cập nhật tăng dần sau mỗi lượt mua.
+ * Mỗi khóa học chỉ giữ tối đa max-neighbors khóa đi kèm (thuật toán Space-Saving: khi đầy thì thay
+ * khóa có bộ đếm nhỏ nhất), nên bộ nhớ bị chặn bởi số khóa học x max-neighbors.
+ * Điểm xếp hạng là cosine: co(a, b) / sqrt(n(a) * n(b)), tránh ưu tiên khóa học chỉ đơn giản là bán chạy.
+ */
+@Component
+public class CoPurchaseRecommender {
+
+    private final CourseManagementRepository courseManagementRepository;
+    private final int maxNeighbors;
+    private final int maxBasket;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<UUID, Neighbors> neighbors = new HashMap<>();
+    private Map<UUID, Integer> purchaseCounts = new HashMap<>();
+
+    public record Recommendation(UUID courseId, double score, int coPurchases) {
+    }
+
+    public CoPurchaseRecommender(CourseManagementRepository courseManagementRepository,
+                                 @Value("${recommendation.co-purchase.max-neighbors:50}") int maxNeighbors,
+                                 @Value("${recommendation.co-purchase.max-basket:100}") int maxBasket) {
+        this.courseManagementRepository = courseManagementRepository;
+        this.maxNeighbors = Math.max(1, maxNeighbors);
+        this.maxBasket = maxBasket;
+    }
+
+    // ✅ Dựng chỉ mục khi ứng dụng khởi động xong
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // Dựng lại định kỳ: đồng bộ lượt mua ở node khác và bỏ sai số của Space-Saving
+    @Scheduled(initialDelayString = "${recommendation.co-purchase.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${recommendation.co-purchase.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        Map<UUID, Neighbors> newNeighbors = new HashMap<>();
+        Map<UUID, Integer> newCounts = new HashMap<>();
+
+        // Các dòng đã sắp theo user -> gom giỏ hàng của từng user rồi cộng từng cặp
+        List<UUID> basket = new ArrayList<>();
+        UUID currentUser = null;
+        for (PurchaseRow row : courseManagementRepository.findPurchaseRows()) {
+            if (!row.userId().equals(currentUser)) {
+                addBasket(basket, newNeighbors, newCounts);
+                basket.clear();
+                currentUser = row.userId();
+            }
+            basket.add(row.courseId());
+        }
+        addBasket(basket, newNeighbors, newCounts);
+
+        lock.writeLock().lock();
+        try {
+            neighbors = newNeighbors;
+            purchaseCounts = newCounts;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Co-purchase index rebuilt with " + newCounts.size() + " courses");
+    }
+
+    // ✅ Cập nhật tăng dần sau khi transaction mua khóa học đã commit
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCoursePurchased(CoursePurchasedEvent event) {
+        // Giống rebuild: chỉ ghép với maxBasket lượt mua gần nhất (+1 vì có thể gồm chính khóa vừa mua)
+        List<UUID> recent = courseManagementRepository.findRecentCourseIds(
+                event.userId(), CourseAccessType.PURCHASED, PageRequest.of(0, maxBasket + 1));
+
+        lock.writeLock().lock();
+        try {
+            purchaseCounts.merge(event.courseId(), 1, Integer::sum);
+            int paired = 0;
+            for (UUID other : recent) {
+                if (other.equals(event.courseId())) {
+                    continue;
+                }
+                if (++paired > maxBasket) {
+                    break;
+                }
+                neighbors.computeIfAbsent(event.courseId(), id -> new Neighbors(maxNeighbors)).add(other);
+                neighbors.computeIfAbsent(other, id -> new Neighbors(maxNeighbors)).add(event.courseId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Khóa học bị xóa: bỏ khỏi chỉ mục (tham chiếu còn sót ở khóa khác bị lọc khi load response)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCourseChanged(CourseChangedEvent event) {
+        if (event.type() != CourseChangedEvent.ChangeType.DELETED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            neighbors.remove(event.courseId());
+            purchaseCounts.remove(event.courseId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Các khóa học hay được mua kèm với courseId, điểm giảm dần, bỏ qua các khóa trong excluded.
+     * Chỉ duyệt tối đa max-neighbors ứng viên nên không phụ thuộc kích thước catalog.
+     */
+    public List<Recommendation> recommend(UUID courseId, Set<UUID> excluded, int limit) {
+        lock.readLock().lock();
+        try {
+            Neighbors candidates = neighbors.get(courseId);
+            Integer courseCount = purchaseCounts.get(courseId);
+            if (candidates == null || courseCount == null) {
+                return List.of();
+            }
+
+            List<Recommendation> result = new ArrayList<>(candidates.size);
+            for (int i = 0; i < candidates.size; i++) {
+                UUID other = candidates.ids[i];
+                Integer otherCount = purchaseCounts.get(other);
+                if (otherCount == null || excluded.contains(other)) {
+                    continue;
+                }
+                // Space-Saving có thể đếm dư -> không vượt quá số lượt mua của khóa ít hơn
+                int co = Math.min(candidates.counts[i], Math.min(courseCount, otherCount));
+                result.add(new Recommendation(other, co / Math.sqrt((double) courseCount * otherCount), co));
+            }
+            result.sort((a, b) -> b.score() != a.score()
+                    ? Double.compare(b.score(), a.score())
+                    : Integer.compare(b.coPurchases(), a.coPurchases()));
+            return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addBasket(List<UUID> basket, Map<UUID, Neighbors> target, Map<UUID, Integer> counts) {
+        if (basket.isEmpty()) {
+            return;
+        }
+        // Chỉ lấy maxBasket lượt mua gần nhất: user mua rất nhiều khóa tạo O(n^2) cặp mà ít ý nghĩa
+        List<UUID> recent = basket.size() > maxBasket ? basket.subList(basket.size() - maxBasket, basket.size()) : basket;
+        for (UUID course : basket) {
+            counts.merge(course, 1, Integer::sum);
+        }
+        for (int i = 0; i < recent.size(); i++) {
+            for (int j = i + 1; j < recent.size(); j++) {
+                UUID a = recent.get(i);
+                UUID b = recent.get(j);
+                if (a.equals(b)) {
+                    continue;
+                }
+                target.computeIfAbsent(a, id -> new Neighbors(maxNeighbors)).add(b);
+                target.computeIfAbsent(b, id -> new Neighbors(maxNeighbors)).add(a);
+            }
+        }
+    }
+
+    /**
+     * Danh sách khóa mua kèm có giới hạn (Space-Saving): giữ xấp xỉ các khóa đi kèm nhiều nhất.
+     */
+    private static final class Neighbors {
+        private UUID[] ids;
+        private int[] counts;
+        private int size;
+        private final int capacity;
+
+        Neighbors(int capacity) {
+            this.capacity = capacity;
+            this.ids = new UUID[Math.min(capacity, 4)];
+            this.counts = new int[ids.length];
+        }
+
+        void add(UUID id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i].equals(id)) {
+                    counts[i]++;
+                    return;
+                }
+            }
+            if (size < capacity) {
+                if (size == ids.length) {
+                    int newLength = Math.min(capacity, ids.length * 2);
+                    ids = Arrays.copyOf(ids, newLength);
+                    counts = Arrays.copyOf(counts, newLength);
+                }
+                ids[size] = id;
+                counts[size++] = 1;
+                return;
+            }
+            // Đầy: thay khóa có bộ đếm nhỏ nhất, kế thừa bộ đếm + 1
+            int min = 0;
+            for (int i = 1; i < size; i++) {
+                if (counts[i] < counts[min]) {
+                    min = i;
+                }
+            }
+            ids[min] = id;
+            counts[min]++;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.forsakenecho.learning_management_system.recommendation;
+
+import java.util.UUID;
+
+// Một lượt mua (user, course) dùng để dựng chỉ mục mua kèm
+public record PurchaseRow(UUID userId, UUID courseId) {
+}
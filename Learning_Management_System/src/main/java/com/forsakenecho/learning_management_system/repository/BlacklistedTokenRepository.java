@@ -2,7 +2,14 @@ package com.forsakenecho.learning_management_system.repository;
 
 import com.forsakenecho.learning_management_system.entity.BlacklistedToken; // Import entity
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, Long> {
@@ -10,7 +17,15 @@ public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedTok
     // Phương thức để kiểm tra xem một token_hash có tồn tại trong blacklist không
     boolean existsByTokenHash(String tokenHash);
 
-    // Phương thức để tìm token đã hết hạn để dọn dẹp
-    // Bạn có thể cần thêm query cụ thể nếu muốn tìm tất cả các token đã hết hạn
-    // List<BlacklistedToken> findByExpirationTimeBefore(LocalDateTime dateTime);
+    // ✅ Dùng cho TokenRevocationCache: nạp các token còn hạn
+    List<BlacklistedToken> findByExpirationTimeAfter(LocalDateTime now);
+
+    // ✅ Đồng bộ tăng dần các token mới bị thu hồi (kể cả từ node khác)
+    List<BlacklistedToken> findByBlacklistedAtAfterAndExpirationTimeAfter(LocalDateTime since, LocalDateTime now);
+
+    // ✅ Xóa token hết hạn theo từng lô (dùng index expiration_time), mỗi lô là một transaction ngắn
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM blacklisted_tokens WHERE expiration_time < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
 }
\ No newline at end of file
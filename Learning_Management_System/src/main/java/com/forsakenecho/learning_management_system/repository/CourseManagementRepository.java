@@ -1,7 +1,9 @@
 package com.forsakenecho.learning_management_system.repository;
 
+import com.forsakenecho.learning_management_system.dto.CourseResponse;
 import com.forsakenecho.learning_management_system.entity.CourseManagement;
 import com.forsakenecho.learning_management_system.enums.CourseAccessType;
+import com.forsakenecho.learning_management_system.recommendation.PurchaseRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -19,10 +21,37 @@ public interface CourseManagementRepository extends JpaRepository<CourseManageme
 
     Page<CourseManagement> findByUserIdAndAccessType(UUID userId, CourseAccessType accessType, Pageable pageable);
 
+    // ✅ Chỉ lấy id khóa học (không load entity CourseManagement/Course)
+    @Query("SELECT cm.course.id FROM CourseManagement cm WHERE cm.user.id = :userId AND cm.accessType = :accessType")
+    List<UUID> findCourseIdsByUserIdAndAccessType(@Param("userId") UUID userId, @Param("accessType") CourseAccessType accessType);
+
+    // ✅ Id các khóa học mua gần nhất trước, số lượng giới hạn bằng pageable
+    @Query("SELECT cm.course.id FROM CourseManagement cm WHERE cm.user.id = :userId AND cm.accessType = :accessType " +
+            "ORDER BY cm.purchasedAt DESC")
+    List<UUID> findRecentCourseIds(@Param("userId") UUID userId, @Param("accessType") CourseAccessType accessType, Pageable pageable);
+
+    // ✅ Toàn bộ lượt mua (chỉ 2 cột id), sắp theo user để gom giỏ hàng khi dựng chỉ mục mua kèm
+    @Query("SELECT new com.forsakenecho.learning_management_system.recommendation.PurchaseRow(cm.user.id, cm.course.id) " +
+            "FROM CourseManagement cm WHERE cm.accessType = com.forsakenecho.learning_management_system.enums.CourseAccessType.PURCHASED " +
+            "ORDER BY cm.user.id, cm.purchasedAt")
+    List<PurchaseRow> findPurchaseRows();
+
     // ✅ PHƯƠNG THỨC MỚI: Chỉ lấy các CourseManagement mà khóa học liên quan đang hiển thị
     @Query("SELECT cm FROM CourseManagement cm WHERE cm.user.id = :userId AND cm.accessType = :accessType AND cm.course.visible = true")
     Page<CourseManagement> findByUserIdAndAccessTypeAndCourseVisibleTrue(UUID userId, CourseAccessType accessType, Pageable pageable);
 
+    // ✅ Khóa học đã mua (visible) dạng CourseResponse: một query join course + creator thay cho 1 + 2N query
+    @Query(value = "SELECT new com.forsakenecho.learning_management_system.dto.CourseResponse(" +
+            "c.id, c.title, c.description, c.price, c.category, cr.name, c.imageUrl, c.createdAt, c.updatedAt, c.visible, " +
+            "s.ratingCount, s.ratingSum, s.enrollmentCount, s.lessonCount) " +
+            "FROM CourseManagement cm JOIN cm.course c LEFT JOIN c.creator cr LEFT JOIN CourseStats s ON s.courseId = c.id " +
+            "WHERE cm.user.id = :userId AND cm.accessType = :accessType AND c.visible = true",
+            countQuery = "SELECT COUNT(cm) FROM CourseManagement cm " +
+                    "WHERE cm.user.id = :userId AND cm.accessType = :accessType AND cm.course.visible = true")
+    Page<CourseResponse> findCourseResponsesByUserIdAndAccessType(@Param("userId") UUID userId,
+                                                                  @Param("accessType") CourseAccessType accessType,
+                                                                  Pageable pageable);
+
     // ✅ MỚI: Đếm số lượt mua (tổng số record) cho các khóa học do một giáo viên tạo
     @Query("SELECT COUNT(cm) FROM CourseManagement cm WHERE cm.course.creator.id = :teacherId AND cm.accessType = 'PURCHASED'")
     long countPurchasesForTeacherCourses(@Param("teacherId") UUID teacherId);
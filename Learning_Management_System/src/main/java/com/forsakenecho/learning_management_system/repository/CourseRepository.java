@@ -1,6 +1,11 @@
 package com.forsakenecho.learning_management_system.repository;
 
+import com.forsakenecho.learning_management_system.dto.CourseResponse;
 import com.forsakenecho.learning_management_system.entity.Course;
+import com.forsakenecho.learning_management_system.enums.CourseCategory;
+import com.forsakenecho.learning_management_system.search.CourseDocument;
+import com.forsakenecho.learning_management_system.search.CourseFacetRow;
+import com.forsakenecho.learning_management_system.search.CourseTitleRow;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,7 +14,10 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // ✅
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 // ✅ Kế thừa JpaSpecificationExecutor để có thể sử dụng Specification trong service
@@ -18,8 +26,6 @@ public interface CourseRepository extends JpaRepository<Course, UUID>, JpaSpecif
     // hoặc cho các truy vấn đơn giản không cần Specification.
     Page<Course> findByVisibleTrue(Pageable pageable);
 
-    Page<Course> findByVisibleTrueAndIdNotIn(List<UUID> excludedIds, Pageable pageable);
-
     Page<Course> findByCreatorId(UUID userId, Pageable pageable);
 
     // ✅ Phương thức findVisibleCoursesByKeyword này HIỆN TẠI KHÔNG CẦN THIẾT NỮA
@@ -36,9 +42,103 @@ public interface CourseRepository extends JpaRepository<Course, UUID>, JpaSpecif
     // """)
     // Page<Course> findVisibleCoursesByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
+    // ✅ Projection cho CourseResponse: chỉ lấy đúng các cột cần, LEFT JOIN creator trong cùng một query
+    // (tránh N+1 khi CourseResponse.from gọi course.getCreator() trên quan hệ LAZY)
+    String COURSE_RESPONSE_SELECT = "SELECT new com.forsakenecho.learning_management_system.dto.CourseResponse(" +
+            "c.id, c.title, c.description, c.price, c.category, cr.name, c.imageUrl, c.createdAt, c.updatedAt, c.visible, " +
+            "s.ratingCount, s.ratingSum, s.enrollmentCount, s.lessonCount) " +
+            "FROM Course c LEFT JOIN c.creator cr LEFT JOIN CourseStats s ON s.courseId = c.id ";
+
+    String NOT_PURCHASED_BY_USER = """
+            NOT EXISTS (
+                SELECT 1 FROM CourseManagement cm
+                WHERE cm.course = c AND cm.user.id = :userId
+                  AND cm.accessType = com.forsakenecho.learning_management_system.enums.CourseAccessType.PURCHASED)
+            """;
+
+    @Query(COURSE_RESPONSE_SELECT + "WHERE c.id IN :ids")
+    List<CourseResponse> findResponsesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query(value = COURSE_RESPONSE_SELECT + "WHERE c.visible = true AND (:category IS NULL OR c.category = :category)",
+            countQuery = "SELECT COUNT(c) FROM Course c WHERE c.visible = true AND (:category IS NULL OR c.category = :category)")
+    Page<CourseResponse> findVisibleResponses(@Param("category") CourseCategory category, Pageable pageable);
+
+    @Query(value = COURSE_RESPONSE_SELECT + "WHERE c.visible = true AND (:category IS NULL OR c.category = :category) AND " + NOT_PURCHASED_BY_USER,
+            countQuery = "SELECT COUNT(c) FROM Course c WHERE c.visible = true AND (:category IS NULL OR c.category = :category) AND " + NOT_PURCHASED_BY_USER)
+    Page<CourseResponse> findExploreResponses(@Param("userId") UUID userId,
+                                              @Param("category") CourseCategory category,
+                                              Pageable pageable);
+
+    @Query(value = COURSE_RESPONSE_SELECT + "WHERE c.creator.id = :creatorId AND (:category IS NULL OR c.category = :category)",
+            countQuery = "SELECT COUNT(c) FROM Course c WHERE c.creator.id = :creatorId AND (:category IS NULL OR c.category = :category)")
+    Page<CourseResponse> findResponsesByCreator(@Param("creatorId") UUID creatorId,
+                                                @Param("category") CourseCategory category,
+                                                Pageable pageable);
+
+    @Query(value = COURSE_RESPONSE_SELECT, countQuery = "SELECT COUNT(c) FROM Course c")
+    Page<CourseResponse> findAllResponses(Pageable pageable);
+
+    // ✅ Phân trang keyset (createdAt DESC, id DESC): không OFFSET, không COUNT
+    // Truyền Pageable = PageRequest.of(0, size + 1) để biết còn trang sau hay không
+    @Query(COURSE_RESPONSE_SELECT + """
+            WHERE c.visible = true
+              AND (:category IS NULL OR c.category = :category)
+              AND\s""" + NOT_PURCHASED_BY_USER + """
+              AND (c.createdAt < :cursorTime OR (c.createdAt = :cursorTime AND c.id < :cursorId))
+            ORDER BY c.createdAt DESC, c.id DESC
+            """)
+    List<CourseResponse> findExploreKeyset(@Param("userId") UUID userId,
+                                           @Param("category") CourseCategory category,
+                                           @Param("cursorTime") LocalDateTime cursorTime,
+                                           @Param("cursorId") UUID cursorId,
+                                           Pageable pageable);
+
+    @Query(COURSE_RESPONSE_SELECT + """
+            WHERE c.creator.id = :creatorId
+              AND (:category IS NULL OR c.category = :category)
+              AND (c.createdAt < :cursorTime OR (c.createdAt = :cursorTime AND c.id < :cursorId))
+            ORDER BY c.createdAt DESC, c.id DESC
+            """)
+    List<CourseResponse> findByCreatorKeyset(@Param("creatorId") UUID creatorId,
+                                             @Param("category") CourseCategory category,
+                                             @Param("cursorTime") LocalDateTime cursorTime,
+                                             @Param("cursorId") UUID cursorId,
+                                             Pageable pageable);
+
+    @Query(COURSE_RESPONSE_SELECT + """
+            WHERE c.createdAt < :cursorTime OR (c.createdAt = :cursorTime AND c.id < :cursorId)
+            ORDER BY c.createdAt DESC, c.id DESC
+            """)
+    List<CourseResponse> findAllKeyset(@Param("cursorTime") LocalDateTime cursorTime,
+                                       @Param("cursorId") UUID cursorId,
+                                       Pageable pageable);
+
+    // ✅ Dữ liệu cho search index: một query, join creator, không load entity
+    @Query("SELECT new com.forsakenecho.learning_management_system.search.CourseDocument(" +
+            "c.id, c.title, c.description, cr.name, c.category, c.price, c.visible, c.createdAt) " +
+            "FROM Course c LEFT JOIN c.creator cr WHERE c.visible = true")
+    List<CourseDocument> findVisibleSearchDocuments();
+
+    @Query("SELECT new com.forsakenecho.learning_management_system.search.CourseDocument(" +
+            "c.id, c.title, c.description, cr.name, c.category, c.price, c.visible, c.createdAt) " +
+            "FROM Course c LEFT JOIN c.creator cr WHERE c.id = :id")
+    Optional<CourseDocument> findSearchDocumentById(@Param("id") UUID id);
+
+    // ✅ Dữ liệu cho facet (category, khoảng giá)
+    @Query("SELECT new com.forsakenecho.learning_management_system.search.CourseFacetRow(c.id, c.category, c.price, c.visible) " +
+            "FROM Course c WHERE c.visible = true")
+    List<CourseFacetRow> findVisibleFacetRows();
+
+    @Query("SELECT new com.forsakenecho.learning_management_system.search.CourseFacetRow(c.id, c.category, c.price, c.visible) " +
+            "FROM Course c WHERE c.id = :id")
+    Optional<CourseFacetRow> findFacetRowById(@Param("id") UUID id);
+
+    // ✅ Dữ liệu cho autocomplete tiêu đề
+    @Query("SELECT new com.forsakenecho.learning_management_system.search.CourseTitleRow(c.id, c.title, c.visible) " +
+            "FROM Course c WHERE c.visible = true")
+    List<CourseTitleRow> findVisibleTitleRows();
 
-    // ✅ PHƯƠNG THỨC MỚI: Để lấy danh sách các danh mục duy nhất cho bộ lọc.
-    // Điều này vẫn cần thiết vì Specification không có sẵn chức năng DISTINCT cho một trường cụ thể như thế này.
-    @Query("SELECT DISTINCT c.category FROM Course c WHERE c.category IS NOT NULL AND c.category <> ''")
-    List<String> findDistinctCategories();
+    @Query("SELECT new com.forsakenecho.learning_management_system.search.CourseTitleRow(c.id, c.title, c.visible) " +
+            "FROM Course c WHERE c.id = :id")
+    Optional<CourseTitleRow> findTitleRowById(@Param("id") UUID id);
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.forsakenecho.learning_management_system.repository;
+
+import com.forsakenecho.learning_management_system.entity.CourseStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface CourseStatsRepository extends JpaRepository<CourseStats, UUID> {
+
+    // ✅ Cập nhật tăng dần bằng một câu UPDATE (nguyên tử, không đọc-sửa-ghi)
+    // Trả về 0 nếu chưa có dòng thống kê -> service sẽ đối soát để tạo dòng
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE CourseStats s SET s.ratingCount = s.ratingCount + :countDelta, " +
+            "s.ratingSum = s.ratingSum + :sumDelta, s.updatedAt = :now WHERE s.courseId = :courseId")
+    int addRating(@Param("courseId") UUID courseId,
+                  @Param("countDelta") long countDelta,
+                  @Param("sumDelta") long sumDelta,
+                  @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE CourseStats s SET s.enrollmentCount = s.enrollmentCount + :delta, s.updatedAt = :now " +
+            "WHERE s.courseId = :courseId")
+    int addEnrollments(@Param("courseId") UUID courseId, @Param("delta") long delta, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE CourseStats s SET s.lessonCount = s.lessonCount + :delta, s.updatedAt = :now " +
+            "WHERE s.courseId = :courseId")
+    int addLessons(@Param("courseId") UUID courseId, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+    // ✅ Đối soát: tính lại từ bảng gốc và ghi đè (tạo dòng nếu chưa có)
+    // Truyền id dạng byte[16] vì cột là BINARY(16) (native query không dùng mapping của entity)
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = """
+            INSERT INTO course_stats (course_id, rating_count, rating_sum, enrollment_count, lesson_count, updated_at)
+            SELECT c.id,
+                   (SELECT COUNT(*) FROM rating r WHERE r.course_id = c.id),
+                   (SELECT COALESCE(SUM(r.value), 0) FROM rating r WHERE r.course_id = c.id),
+                   (SELECT COUNT(*) FROM course_management cm
+                     WHERE cm.course_id = c.id AND cm.access_type = 'PURCHASED'),
+                   (SELECT COUNT(*) FROM lesson l WHERE l.course_id = c.id),
+                   NOW()
+            FROM course c
+            WHERE c.id IN (:courseIds)
+            ON DUPLICATE KEY UPDATE
+                rating_count = VALUES(rating_count),
+                rating_sum = VALUES(rating_sum),
+                enrollment_count = VALUES(enrollment_count),
+                lesson_count = VALUES(lesson_count),
+                updated_at = VALUES(updated_at)
+            """, nativeQuery = true)
+    int reconcile(@Param("courseIds") Collection<byte[]> courseIds);
+
+    // Dòng thống kê của khóa học đã bị xóa
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE s FROM course_stats s LEFT JOIN course c ON c.id = s.course_id WHERE c.id IS NULL",
+            nativeQuery = true)
+    int deleteOrphans();
+
+    // Duyệt id khóa học theo keyset để đối soát từng lô
+    @Query("SELECT c.id FROM Course c WHERE c.id > :afterId ORDER BY c.id")
+    List<UUID> findCourseIdsAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+    // Khóa học chưa có dòng thống kê (dữ liệu có từ trước khi thêm bảng)
+    @Query("SELECT c.id FROM Course c WHERE NOT EXISTS (SELECT 1 FROM CourseStats s WHERE s.courseId = c.id)")
+    List<UUID> findCourseIdsWithoutStats(Pageable pageable);
+}
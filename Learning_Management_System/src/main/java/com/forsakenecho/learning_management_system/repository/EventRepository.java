@@ -4,7 +4,10 @@ import com.forsakenecho.learning_management_system.entity.Event;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,4 +15,14 @@ public interface EventRepository extends JpaRepository<Event, UUID> {
 
     Page<Event> findAllByOrderByTimestampDesc(Pageable pageable);
     List<Event> findAllByOrderByTimestampDesc();
+
+    // ✅ Phân trang keyset theo (timestamp DESC, id DESC)
+    @Query("""
+            SELECT e FROM Event e
+            WHERE e.timestamp < :cursorTime OR (e.timestamp = :cursorTime AND e.id < :cursorId)
+            ORDER BY e.timestamp DESC, e.id DESC
+            """)
+    List<Event> findAllKeyset(@Param("cursorTime") LocalDateTime cursorTime,
+                              @Param("cursorId") UUID cursorId,
+                              Pageable pageable);
 }
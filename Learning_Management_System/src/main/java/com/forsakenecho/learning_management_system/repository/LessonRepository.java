@@ -1,21 +1,119 @@
 package com.forsakenecho.learning_management_system.repository;
 
+import com.forsakenecho.learning_management_system.dto.LessonOutlineResponse;
 import com.forsakenecho.learning_management_system.entity.Lesson;
+import com.forsakenecho.learning_management_system.quiz.LessonAnswerKeyRow;
+import com.forsakenecho.learning_management_system.quiz.LessonVersionRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface LessonRepository extends JpaRepository<Lesson, UUID> {
     List<Lesson> findByCourseId(UUID courseId);
 
-    List<Lesson> findByCourseIdOrderByLessonOrderAsc(UUID courseId);
+    List<Lesson> findByCourseIdOrderBySortKeyAscLessonOrderAsc(UUID courseId);
+
+    // ✅ Mục lục: chỉ các cột nhẹ, không đọc recallQuestion/material/... (LONGTEXT)
+    @Query("SELECT new com.forsakenecho.learning_management_system.dto.LessonOutlineResponse(" +
+            "l.id, l.title, l.lessonOrder, l.youtubeVideoId, l.isLessonCompleted) " +
+            "FROM Lesson l WHERE l.course.id = :courseId ORDER BY l.sortKey, l.lessonOrder")
+    List<LessonOutlineResponse> findOutlineByCourseId(@Param("courseId") UUID courseId);
+
+    Optional<Lesson> findByIdAndCourseId(UUID id, UUID courseId);
+
+    // ✅ Chỉ đọc updatedAt (theo khóa chính) để kiểm tra ETag / snapshot, không load nội dung
+    @Query("SELECT COALESCE(l.updatedAt, l.createdAt) FROM Lesson l WHERE l.id = :lessonId AND l.course.id = :courseId")
+    Optional<LocalDateTime> findUpdatedAt(@Param("lessonId") UUID lessonId, @Param("courseId") UUID courseId);
 
     @Query("SELECT l.id FROM Lesson l WHERE l.course.id = :courseId")
     List<UUID> findLessonIdsByCourseId(@Param("courseId") UUID courseId);
 
+    // ===== Thứ tự bài học (sortKey có khoảng trống) =====
+
+    @Query("SELECT l.id FROM Lesson l WHERE l.course.id = :courseId ORDER BY l.sortKey, l.lessonOrder, l.id")
+    List<UUID> findOrderedLessonIds(@Param("courseId") UUID courseId);
+
+    @Query("SELECT l.sortKey FROM Lesson l WHERE l.id = :lessonId AND l.course.id = :courseId")
+    Optional<Long> findSortKey(@Param("lessonId") UUID lessonId, @Param("courseId") UUID courseId);
+
+    // Khóa nhỏ nhất lớn hơn :after (bài học đứng ngay sau), bỏ qua bài đang được di chuyển
+    @Query("SELECT MIN(l.sortKey) FROM Lesson l WHERE l.course.id = :courseId AND l.sortKey > :after AND l.id <> :excludeId")
+    Long findNextSortKey(@Param("courseId") UUID courseId, @Param("after") long after, @Param("excludeId") UUID excludeId);
+
+    @Query("SELECT MIN(l.sortKey) FROM Lesson l WHERE l.course.id = :courseId AND l.id <> :excludeId")
+    Long findMinSortKey(@Param("courseId") UUID courseId, @Param("excludeId") UUID excludeId);
+
+    // Vị trí (từ 0) của bài học trong khóa học theo thứ tự (sortKey, lessonOrder, id)
+    @Query("SELECT COUNT(l) FROM Lesson l WHERE l.course.id = :courseId AND (l.sortKey < :sortKey " +
+            "OR (l.sortKey = :sortKey AND (l.lessonOrder < :lessonOrder OR (l.lessonOrder = :lessonOrder AND l.id < :lessonId))))")
+    long countLessonsBefore(@Param("courseId") UUID courseId, @Param("sortKey") long sortKey,
+                            @Param("lessonOrder") int lessonOrder, @Param("lessonId") UUID lessonId);
+
+    @Query("SELECT MAX(l.sortKey) FROM Lesson l WHERE l.course.id = :courseId")
+    Long findMaxSortKey(@Param("courseId") UUID courseId);
+
+    // ✅ Di chuyển một bài học: chỉ ghi cột sort_key của đúng 1 dòng, không load nội dung
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE Lesson l SET l.sortKey = :sortKey WHERE l.id = :lessonId AND l.course.id = :courseId")
+    int updateSortKey(@Param("lessonId") UUID lessonId, @Param("courseId") UUID courseId, @Param("sortKey") long sortKey);
+
+    /**
+     * Áp dụng cả một thứ tự mới trong một câu UPDATE: :orderedIds là mảng JSON các UUID theo thứ tự,
+     * vị trí i (từ 1) -> sort_key = i * :gap, lesson_order = i. Id không thuộc khóa học bị bỏ qua.
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = """
+            UPDATE lesson l
+            JOIN JSON_TABLE(:orderedIds, '$[*]' COLUMNS (pos FOR ORDINALITY, lesson_id CHAR(36) PATH '$')) o
+              ON l.id = UUID_TO_BIN(o.lesson_id)
+            SET l.sort_key = o.pos * :gap, l.lesson_order = o.pos
+            WHERE l.course_id = UUID_TO_BIN(:courseId)
+            """, nativeQuery = true)
+    int applyOrder(@Param("courseId") String courseId, @Param("orderedIds") String orderedIds, @Param("gap") long gap);
+
+    // Khóa học cần rebalance: hai bài liền kề có khoảng cách < :minGap, hoặc lesson_order lệch với vị trí thực
+    @Query(value = """
+            SELECT DISTINCT BIN_TO_UUID(t.course_id) FROM (
+                SELECT course_id, lesson_order,
+                       sort_key - LAG(sort_key) OVER w AS gap,
+                       ROW_NUMBER() OVER w AS pos
+                FROM lesson
+                WINDOW w AS (PARTITION BY course_id ORDER BY sort_key, lesson_order, id)
+            ) t
+            WHERE t.gap < :minGap OR t.lesson_order <> t.pos
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<String> findCourseIdsNeedingRebalance(@Param("minGap") long minGap, @Param("limit") int limit);
+
+    // ===== Đáp án trắc nghiệm đã parse (QuizAnswerKey) =====
+
+    @Query("SELECT new com.forsakenecho.learning_management_system.quiz.LessonVersionRow(l.id, l.version) " +
+            "FROM Lesson l WHERE l.course.id = :courseId AND l.id IN :lessonIds")
+    List<LessonVersionRow> findVersions(@Param("courseId") UUID courseId, @Param("lessonIds") Collection<UUID> lessonIds);
+
+    @Query("SELECT new com.forsakenecho.learning_management_system.quiz.LessonAnswerKeyRow(l.id, l.version, l.answerKey) " +
+            "FROM Lesson l WHERE l.course.id = :courseId AND l.id IN :lessonIds")
+    List<LessonAnswerKeyRow> findAnswerKeys(@Param("courseId") UUID courseId, @Param("lessonIds") Collection<UUID> lessonIds);
+
+    @Query("SELECT l.multipleChoice FROM Lesson l WHERE l.id = :lessonId")
+    Optional<String> findMultipleChoice(@Param("lessonId") UUID lessonId);
+
+    // Ghi đáp án đã parse cho dòng cũ; không tăng version (nội dung bài học không đổi)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Lesson l SET l.answerKey = :answerKey WHERE l.id = :lessonId")
+    int updateAnswerKey(@Param("lessonId") UUID lessonId, @Param("answerKey") byte[] answerKey);
+
     // ✅ Thêm phương thức để đếm số lượng bài học một cách hiệu quả
     int countByCourseId(UUID courseId);
 }
@@ -0,0 +1,49 @@
+package com.forsakenecho.learning_management_system.repository;
+
+import com.forsakenecho.learning_management_system.dto.LessonStepProgressDTO;
+import com.forsakenecho.learning_management_system.entity.LessonStepProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface LessonStepProgressRepository extends JpaRepository<LessonStepProgress, UUID> {
+
+    /**
+     * Bật các bit :setBits rồi tắt các bit :clearBits trong một câu upsert nguyên tử
+     * (hai request đồng thời cho hai bước khác nhau không ghi đè lẫn nhau).
+     * Chỉ ghi khi bài học thuộc khóa học; trả 0 nếu không.
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = """
+            INSERT INTO lesson_step_progress (id, student_id, course_id, lesson_id, step_mask, updated_at)
+            SELECT UUID_TO_BIN(:id), :studentId, l.course_id, l.id, :setBits & ~:clearBits, NOW(6)
+            FROM lesson l
+            WHERE l.id = UUID_TO_BIN(:lessonId) AND l.course_id = UUID_TO_BIN(:courseId)
+            ON DUPLICATE KEY UPDATE
+                step_mask = (lesson_step_progress.step_mask | :setBits) & ~:clearBits,
+                updated_at = NOW(6)
+            """, nativeQuery = true)
+    int applySteps(@Param("id") String id,
+                   @Param("studentId") String studentId,
+                   @Param("courseId") String courseId,
+                   @Param("lessonId") String lessonId,
+                   @Param("setBits") int setBits,
+                   @Param("clearBits") int clearBits);
+
+    @Query("SELECT p.stepMask FROM LessonStepProgress p WHERE p.studentId = :studentId AND p.lessonId = :lessonId")
+    Optional<Integer> findStepMask(@Param("studentId") UUID studentId, @Param("lessonId") UUID lessonId);
+
+    // ✅ Trạng thái các bước của cả khóa học cho một sinh viên: một lần đọc trên idx_step_progress_student_course
+    // (join theo khóa chính của lesson để bỏ qua bài học đã bị xóa)
+    @Query("SELECT new com.forsakenecho.learning_management_system.dto.LessonStepProgressDTO(p.lessonId, p.stepMask) " +
+            "FROM LessonStepProgress p JOIN Lesson l ON l.id = p.lessonId " +
+            "WHERE p.studentId = :studentId AND p.courseId = :courseId")
+    List<LessonStepProgressDTO> findCourseSteps(@Param("studentId") UUID studentId, @Param("courseId") UUID courseId);
+}
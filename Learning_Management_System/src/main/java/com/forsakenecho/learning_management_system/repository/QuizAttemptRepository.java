@@ -0,0 +1,9 @@
+package com.forsakenecho.learning_management_system.repository;
+
+import com.forsakenecho.learning_management_system.entity.QuizAttempt;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, UUID> {
+}
@@ -4,11 +4,26 @@ import com.forsakenecho.learning_management_system.entity.TransactionHistory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 public interface TransactionHistoryRepository extends JpaRepository<TransactionHistory, UUID> {
     Page<TransactionHistory> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
 
+    // ✅ Phân trang keyset cho lịch sử ví
+    @Query("""
+            SELECT t FROM TransactionHistory t
+            WHERE t.user.id = :userId
+              AND (t.createdAt < :cursorTime OR (t.createdAt = :cursorTime AND t.id < :cursorId))
+            ORDER BY t.createdAt DESC, t.id DESC
+            """)
+    List<TransactionHistory> findByUserIdKeyset(@Param("userId") UUID userId,
+                                                @Param("cursorTime") LocalDateTime cursorTime,
+                                                @Param("cursorId") UUID cursorId,
+                                                Pageable pageable);
+
 }
@@ -1,10 +1,16 @@
 package com.forsakenecho.learning_management_system.repository;
 
 import com.forsakenecho.learning_management_system.entity.User;
+import com.forsakenecho.learning_management_system.enums.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,4 +20,26 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     boolean existsByEmail(String email);
 
     Page<User> findByRoleInOrderByCreatedAtDesc(List<String> roles, Pageable pageable);
+
+    // ✅ Phân trang keyset cho danh sách user của admin
+    @Query("""
+            SELECT u FROM User u
+            WHERE u.role IN :roles
+              AND (u.createdAt < :cursorTime OR (u.createdAt = :cursorTime AND u.id < :cursorId))
+            ORDER BY u.createdAt DESC, u.id DESC
+            """)
+    List<User> findByRoleInKeyset(@Param("roles") List<Role> roles,
+                                  @Param("cursorTime") LocalDateTime cursorTime,
+                                  @Param("cursorId") UUID cursorId,
+                                  Pageable pageable);
+
+    // ✅ Dùng để invalidate cache principal giữa các node
+    @Query("SELECT u.email FROM User u WHERE u.updatedAt > :since")
+    List<String> findEmailsUpdatedAfter(@Param("since") LocalDateTime since);
+
+    // ✅ Thu hồi mọi token của user (logout everywhere / admin khóa), O(1) lưu trữ
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1, u.updatedAt = :now WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") UUID id, @Param("now") LocalDateTime now);
 }
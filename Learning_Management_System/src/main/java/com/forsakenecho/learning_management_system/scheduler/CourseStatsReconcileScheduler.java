@@ -0,0 +1,37 @@
+package com.forsakenecho.learning_management_system.scheduler;
+
+import com.forsakenecho.learning_management_system.service.CourseStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CourseStatsReconcileScheduler {
+
+    private final CourseStatsService courseStatsService;
+
+    @Value("${course-stats.reconcile.batch-size:500}")
+    private int batchSize;
+
+    // ✅ Khi khởi động: chỉ tạo dòng cho khóa học chưa có thống kê (nhanh nếu đã đủ)
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillMissingCourseStats() {
+        long total = courseStatsService.fillMissing(batchSize);
+        if (total > 0) {
+            System.out.println("Created course stats for " + total + " courses");
+        }
+    }
+
+    // ✅ Đối soát course_stats với bảng gốc mỗi đêm để sửa lệch (lỗi giữa chừng, sửa dữ liệu tay, ...)
+    @Scheduled(cron = "${course-stats.reconcile.cron:0 30 3 * * *}")
+    public void reconcileCourseStats() {
+        long start = System.currentTimeMillis();
+        long total = courseStatsService.reconcileAll(batchSize);
+        System.out.println("Reconciled course stats for " + total + " courses in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+}
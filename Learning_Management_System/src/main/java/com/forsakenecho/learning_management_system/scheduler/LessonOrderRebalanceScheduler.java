@@ -0,0 +1,35 @@
+package com.forsakenecho.learning_management_system.scheduler;
+
+import com.forsakenecho.learning_management_system.service.LessonOrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class LessonOrderRebalanceScheduler {
+
+    private final LessonOrderService lessonOrderService;
+
+    @Value("${lesson-order.rebalance.min-gap:16}")
+    private long minGap;
+
+    @Value("${lesson-order.rebalance.batch-size:100}")
+    private int batchSize;
+
+    @Value("${lesson-order.rebalance.max-courses:1000}")
+    private int maxCourses;
+
+    // ✅ Định kỳ giãn lại sortKey của các khóa học bị kéo thả nhiều (khoảng trống cạn) và đồng bộ lessonOrder
+    @Scheduled(initialDelayString = "${lesson-order.rebalance.interval-ms:900000}",
+            fixedDelayString = "${lesson-order.rebalance.interval-ms:900000}")
+    public void rebalanceLessonOrder() {
+        long start = System.currentTimeMillis();
+        int total = lessonOrderService.rebalanceAll(minGap, batchSize, maxCourses);
+        if (total > 0) {
+            System.out.println("Rebalanced lesson order for " + total + " courses in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.forsakenecho.learning_management_system.search;
+
+import com.forsakenecho.learning_management_system.enums.CourseCategory;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Các cột của Course cần cho search index, lấy bằng một projection (không load entity/creator lazy).
+ */
+public record CourseDocument(
+        UUID id,
+        String title,
+        String description,
+        String creatorName,
+        CourseCategory category,
+        Double price,
+        boolean visible,
+        LocalDateTime createdAt
+) {
+}
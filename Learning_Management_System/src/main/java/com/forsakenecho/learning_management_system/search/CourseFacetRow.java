@@ -0,0 +1,16 @@
+package com.forsakenecho.learning_management_system.search;
+
+import com.forsakenecho.learning_management_system.enums.CourseCategory;
+
+import java.util.UUID;
+
+/**
+ * Các cột của Course cần cho facet (category, khoảng giá), lấy bằng projection.
+ */
+public record CourseFacetRow(
+        UUID id,
+        CourseCategory category,
+        Double price,
+        boolean visible
+) {
+}
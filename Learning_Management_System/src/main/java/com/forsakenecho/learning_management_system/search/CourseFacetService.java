@@ -0,0 +1,195 @@
+package com.forsakenecho.learning_management_system.search;
+
+import com.forsakenecho.learning_management_system.enums.CourseCategory;
+import com.forsakenecho.learning_management_system.event.CourseChangedEvent;
+import com.forsakenecho.learning_management_system.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Đếm số khóa học visible theo CourseCategory và khoảng giá, giữ trong bộ nhớ.
+ * Cập nhật tăng dần từ CourseChangedEvent (tạo/sửa/xóa/ẩn hiện) nên trang catalog
+ * không phải chạy SELECT DISTINCT / GROUP BY mỗi lần tải; dựng lại định kỳ để đồng bộ giữa các node.
+ */
+@Component
+public class CourseFacetService {
+
+    private static final CourseCategory[] CATEGORIES = CourseCategory.values();
+
+    private final CourseRepository courseRepository;
+    private final double[] bandBounds; // cận trên (không gồm) của các khoảng giá trả phí, khoảng cuối không giới hạn
+    private final List<String> bandLabels;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<UUID, Entry> entries = new HashMap<>();
+    private long[][] counts; // [category][band]
+
+    private record Entry(CourseCategory category, int band) {
+    }
+
+    public CourseFacetService(CourseRepository courseRepository,
+                              @Value("${search.facets.price-bands:200000,500000,1000000}") double[] bandBounds) {
+        this.courseRepository = courseRepository;
+        this.bandBounds = bandBounds.clone();
+        Arrays.sort(this.bandBounds);
+
+        List<String> labels = new ArrayList<>();
+        labels.add("FREE");
+        long lower = 0;
+        for (double bound : this.bandBounds) {
+            labels.add(lower + "-" + (long) bound);
+            lower = (long) bound;
+        }
+        labels.add(lower + "+");
+        this.bandLabels = List.copyOf(labels);
+        this.counts = new long[CATEGORIES.length][bandLabels.size()];
+    }
+
+    // ✅ Dựng facet khi ứng dụng khởi động xong
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${search.facets.rebuild-interval-ms:600000}",
+            fixedDelayString = "${search.facets.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        Map<UUID, Entry> newEntries = new HashMap<>();
+        long[][] newCounts = new long[CATEGORIES.length][bandLabels.size()];
+        for (CourseFacetRow row : courseRepository.findVisibleFacetRows()) {
+            Entry entry = toEntry(row);
+            if (entry != null) {
+                newEntries.put(row.id(), entry);
+                newCounts[entry.category().ordinal()][entry.band()]++;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            entries = newEntries;
+            counts = newCounts;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Course facets rebuilt with " + newEntries.size() + " courses");
+    }
+
+    // ✅ Cập nhật tăng dần sau khi transaction tạo/sửa/xóa/ẩn khóa học đã commit
+    // Order(0): chạy trước PublicResponseCache để cache bị xóa sau khi dữ liệu đã mới
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCourseChanged(CourseChangedEvent event) {
+        Entry updated = event.type() == CourseChangedEvent.ChangeType.DELETED
+                ? null
+                : courseRepository.findFacetRowById(event.courseId()).map(this::toEntry).orElse(null);
+
+        lock.writeLock().lock();
+        try {
+            Entry old = updated == null ? entries.remove(event.courseId()) : entries.put(event.courseId(), updated);
+            if (old != null) {
+                counts[old.category().ordinal()][old.band()]--;
+            }
+            if (updated != null) {
+                counts[updated.category().ordinal()][updated.band()]++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Số lượng trên toàn bộ khóa học visible
+    public FacetCounts getCounts() {
+        lock.readLock().lock();
+        try {
+            long[][] copy = new long[counts.length][];
+            for (int i = 0; i < counts.length; i++) {
+                copy[i] = counts[i].clone();
+            }
+            return toFacetCounts(copy);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Số lượng trên một tập khóa học (vd. các kết quả khớp từ khóa), tính trong bộ nhớ, không query DB
+    public FacetCounts countFor(Collection<UUID> courseIds) {
+        long[][] tally = new long[CATEGORIES.length][bandLabels.size()];
+        lock.readLock().lock();
+        try {
+            for (UUID id : courseIds) {
+                Entry entry = entries.get(id);
+                if (entry != null) {
+                    tally[entry.category().ordinal()][entry.band()]++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toFacetCounts(tally);
+    }
+
+    // Các category đang có ít nhất một khóa học visible
+    public List<String> getAvailableCategories() {
+        return getCounts().categories().entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Entry toEntry(CourseFacetRow row) {
+        if (!row.visible() || row.category() == null) {
+            return null;
+        }
+        return new Entry(row.category(), bandOf(row.price()));
+    }
+
+    private int bandOf(Double price) {
+        if (price == null || price <= 0) {
+            return 0;
+        }
+        for (int i = 0; i < bandBounds.length; i++) {
+            if (price < bandBounds[i]) {
+                return i + 1;
+            }
+        }
+        return bandBounds.length + 1;
+    }
+
+    private FacetCounts toFacetCounts(long[][] tally) {
+        long total = 0;
+        Map<String, Long> categories = new LinkedHashMap<>();
+        Map<String, Long> priceBands = new LinkedHashMap<>();
+        Map<String, Map<String, Long>> categoryPriceBands = new LinkedHashMap<>();
+        bandLabels.forEach(label -> priceBands.put(label, 0L));
+
+        for (CourseCategory category : CATEGORIES) {
+            long[] row = tally[category.ordinal()];
+            long categoryTotal = 0;
+            Map<String, Long> bands = new LinkedHashMap<>();
+            for (int b = 0; b < row.length; b++) {
+                categoryTotal += row[b];
+                bands.put(bandLabels.get(b), row[b]);
+                priceBands.merge(bandLabels.get(b), row[b], Long::sum);
+            }
+            categories.put(category.name(), categoryTotal);
+            categoryPriceBands.put(category.name(), bands);
+            total += categoryTotal;
+        }
+        return new FacetCounts(total, categories, priceBands, categoryPriceBands);
+    }
+}
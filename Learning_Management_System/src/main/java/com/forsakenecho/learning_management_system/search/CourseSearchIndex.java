@@ -0,0 +1,361 @@
+package com.forsakenecho.learning_management_system.search;
+
+import com.forsakenecho.learning_management_system.event.CourseChangedEvent;
+import com.forsakenecho.learning_management_system.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index in-memory cho tìm kiếm khóa học public (chỉ các khóa học visible).
+ * - Index title, tên giáo viên và description, đã bỏ dấu tiếng Việt.
+ * - Xếp hạng bằng BM25F (title có trọng số cao nhất).
+ * - Từ cuối của câu truy vấn được mở rộng theo tiền tố ("lap tr" khớp "lập trình").
+ * Cập nhật tăng dần từ CourseChangedEvent; dựng lại định kỳ để đồng bộ với thay đổi từ node khác.
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseSearchIndex {
+
+    private static final int TITLE = 0;
+    private static final int CREATOR = 1;
+    private static final int DESCRIPTION = 2;
+    private static final double[] FIELD_BOOST = {3.0, 2.0, 1.0};
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_WEIGHT = 0.7;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int SNIPPET_LENGTH = 160;
+
+    private final CourseRepository courseRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<UUID, IndexedCourse> docs = new HashMap<>();
+    private TreeMap<String, Set<UUID>> postings = new TreeMap<>();
+    private long[] totalFieldLength = new long[3];
+
+    private static final class IndexedCourse {
+        final CourseDocument source;
+        final Map<String, int[]> termFreqs = new HashMap<>();
+        final int[] fieldLength = new int[3];
+
+        IndexedCourse(CourseDocument source) {
+            this.source = source;
+            addField(TITLE, source.title());
+            addField(CREATOR, source.creatorName());
+            addField(DESCRIPTION, source.description());
+        }
+
+        private void addField(int field, String text) {
+            for (String term : TextNormalizer.terms(text)) {
+                termFreqs.computeIfAbsent(term, t -> new int[3])[field]++;
+                fieldLength[field]++;
+            }
+        }
+    }
+
+    public record Hit(UUID courseId, double score, String highlightedTitle, String snippet) {
+    }
+
+    /**
+     * @param hits  các kết quả của trang được yêu cầu, đã sắp theo điểm
+     * @param total tổng số khóa học khớp (sau khi lọc category)
+     * @param matchedIds toàn bộ id khớp từ khóa, TRƯỚC khi lọc category (để tính facet)
+     */
+    public record SearchResult(List<Hit> hits, long total, List<UUID> matchedIds) {
+    }
+
+    // ✅ Dựng index khi ứng dụng khởi động xong
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${search.index.rebuild-interval-ms:600000}",
+            fixedDelayString = "${search.index.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        Map<UUID, IndexedCourse> newDocs = new HashMap<>();
+        TreeMap<String, Set<UUID>> newPostings = new TreeMap<>();
+        long[] newTotals = new long[3];
+        for (CourseDocument document : courseRepository.findVisibleSearchDocuments()) {
+            IndexedCourse indexed = new IndexedCourse(document);
+            newDocs.put(document.id(), indexed);
+            addPostings(newPostings, newTotals, indexed);
+        }
+
+        lock.writeLock().lock();
+        try {
+            docs = newDocs;
+            postings = newPostings;
+            totalFieldLength = newTotals;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Course search index rebuilt with " + newDocs.size() + " courses");
+    }
+
+    // ✅ Cập nhật tăng dần sau khi transaction tạo/sửa/xóa/ẩn khóa học đã commit
+    // Order(0): chạy trước PublicResponseCache để cache bị xóa sau khi dữ liệu đã mới
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCourseChanged(CourseChangedEvent event) {
+        if (event.type() == CourseChangedEvent.ChangeType.DELETED) {
+            remove(event.courseId());
+            return;
+        }
+        courseRepository.findSearchDocumentById(event.courseId())
+                .filter(CourseDocument::visible)
+                .ifPresentOrElse(this::upsert, () -> remove(event.courseId()));
+    }
+
+    public void upsert(CourseDocument document) {
+        IndexedCourse indexed = new IndexedCourse(document);
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.id());
+            docs.put(document.id(), indexed);
+            addPostings(postings, totalFieldLength, indexed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID courseId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(courseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(UUID courseId) {
+        IndexedCourse old = docs.remove(courseId);
+        if (old == null) {
+            return;
+        }
+        for (String term : old.termFreqs.keySet()) {
+            Set<UUID> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(courseId);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (int f = 0; f < 3; f++) {
+            totalFieldLength[f] -= old.fieldLength[f];
+        }
+    }
+
+    private static void addPostings(TreeMap<String, Set<UUID>> postings, long[] totals, IndexedCourse indexed) {
+        for (String term : indexed.termFreqs.keySet()) {
+            postings.computeIfAbsent(term, t -> new HashSet<>()).add(indexed.source.id());
+        }
+        for (int f = 0; f < 3; f++) {
+            totals[f] += indexed.fieldLength[f];
+        }
+    }
+
+    /**
+     * Tìm kiếm: mọi từ trong truy vấn đều phải khớp (từ cuối khớp theo tiền tố).
+     *
+     * @param category lọc theo tên CourseCategory (null/blank = không lọc)
+     */
+    public SearchResult search(String query, String category, long offset, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.terms(query)));
+        if (queryTerms.isEmpty()) {
+            return new SearchResult(List.of(), 0, List.of());
+        }
+        String lastTerm = queryTerms.get(queryTerms.size() - 1);
+        boolean filterCategory = category != null && !category.isBlank();
+
+        List<Hit> page;
+        List<UUID> matchedIds;
+        List<UUID> filtered;
+        lock.readLock().lock();
+        try {
+            int n = docs.size();
+            if (n == 0) {
+                return new SearchResult(List.of(), 0, List.of());
+            }
+            double[] avgLength = new double[3];
+            for (int f = 0; f < 3; f++) {
+                avgLength[f] = Math.max(1.0, (double) totalFieldLength[f] / n);
+            }
+
+            Map<UUID, Double> scores = null;
+            for (String term : queryTerms) {
+                // Các term trong index ứng với từ truy vấn (kèm trọng số: khớp đúng = 1, tiền tố < 1)
+                Map<String, Double> expansions = new HashMap<>();
+                if (postings.containsKey(term)) {
+                    expansions.put(term, 1.0);
+                }
+                if (term.equals(lastTerm)) {
+                    NavigableMap<String, Set<UUID>> prefixed = postings.subMap(term, false, term + Character.MAX_VALUE, false);
+                    int count = 0;
+                    for (String candidate : prefixed.keySet()) {
+                        if (count++ >= MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        expansions.putIfAbsent(candidate, PREFIX_WEIGHT);
+                    }
+                }
+
+                Map<UUID, Double> termScores = new HashMap<>();
+                for (Map.Entry<String, Double> expansion : expansions.entrySet()) {
+                    Set<UUID> ids = postings.get(expansion.getKey());
+                    double idf = Math.log(1 + (n - ids.size() + 0.5) / (ids.size() + 0.5));
+                    for (UUID id : ids) {
+                        if (scores != null && !scores.containsKey(id)) {
+                            continue; // AND: đã không khớp từ trước đó
+                        }
+                        IndexedCourse doc = docs.get(id);
+                        double s = expansion.getValue() * bm25f(doc, expansion.getKey(), idf, avgLength);
+                        termScores.merge(id, s, Math::max);
+                    }
+                }
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<UUID, Double> merged = new HashMap<>();
+                    for (Map.Entry<UUID, Double> e : termScores.entrySet()) {
+                        merged.put(e.getKey(), scores.get(e.getKey()) + e.getValue());
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+
+            Map<UUID, Double> finalScores = scores;
+            matchedIds = new ArrayList<>(finalScores.keySet());
+            matchedIds.sort(Comparator.<UUID>comparingDouble(finalScores::get).reversed()
+                    .thenComparing(id -> docs.get(id).source.createdAt(),
+                            Comparator.nullsLast(Comparator.reverseOrder())));
+
+            // Lọc category sau cùng để facet vẫn đếm được các category khác
+            filtered = filterCategory
+                    ? matchedIds.stream().filter(id -> {
+                        CourseDocument source = docs.get(id).source;
+                        return source.category() != null && source.category().name().equalsIgnoreCase(category);
+                    }).toList()
+                    : matchedIds;
+
+            page = new ArrayList<>();
+            for (long i = offset; i < filtered.size() && page.size() < limit; i++) {
+                UUID id = filtered.get((int) i);
+                CourseDocument source = docs.get(id).source;
+                page.add(new Hit(id, finalScores.get(id),
+                        highlight(source.title(), queryTerms, lastTerm),
+                        snippet(source.description(), queryTerms, lastTerm)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new SearchResult(page, filtered.size(), matchedIds);
+    }
+
+    // BM25F: gộp tần suất các field (có trọng số, chuẩn hóa theo độ dài) rồi bão hòa bằng k1
+    private static double bm25f(IndexedCourse doc, String term, double idf, double[] avgLength) {
+        int[] tf = doc.termFreqs.get(term);
+        if (tf == null) {
+            return 0;
+        }
+        double weightedTf = 0;
+        for (int f = 0; f < 3; f++) {
+            if (tf[f] > 0) {
+                double norm = 1 - B + B * doc.fieldLength[f] / avgLength[f];
+                weightedTf += FIELD_BOOST[f] * tf[f] / norm;
+            }
+        }
+        return idf * weightedTf / (K1 + weightedTf);
+    }
+
+    private static boolean matches(String term, List<String> queryTerms, String lastTerm) {
+        return queryTerms.contains(term) || term.startsWith(lastTerm);
+    }
+
+    // Bọc các từ khớp bằng <em>, phần còn lại được escape HTML
+    static String highlight(String text, List<String> queryTerms, String lastTerm) {
+        if (text == null) {
+            return null;
+        }
+        return highlightRange(text, 0, text.length(), queryTerms, lastTerm);
+    }
+
+    private static String highlightRange(String text, int from, int to, List<String> queryTerms, String lastTerm) {
+        StringBuilder sb = new StringBuilder();
+        int cursor = from;
+        for (TextNormalizer.Token token : TextNormalizer.tokenize(text)) {
+            if (token.start() < from || token.end() > to || !matches(token.term(), queryTerms, lastTerm)) {
+                continue;
+            }
+            appendEscaped(sb, text, cursor, token.start());
+            sb.append("<em>");
+            appendEscaped(sb, text, token.start(), token.end());
+            sb.append("</em>");
+            cursor = token.end();
+        }
+        appendEscaped(sb, text, cursor, to);
+        return sb.toString();
+    }
+
+    // Đoạn trích quanh từ khớp đầu tiên trong description
+    static String snippet(String text, List<String> queryTerms, String lastTerm) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        int firstMatch = 0;
+        for (TextNormalizer.Token token : TextNormalizer.tokenize(text)) {
+            if (matches(token.term(), queryTerms, lastTerm)) {
+                firstMatch = token.start();
+                break;
+            }
+        }
+        int start = Math.max(0, firstMatch - SNIPPET_LENGTH / 4);
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+        // Không cắt giữa một từ
+        while (start > 0 && TextNormalizer.isWordChar(text.charAt(start - 1))) {
+            start--;
+        }
+        while (end < text.length() && TextNormalizer.isWordChar(text.charAt(end))) {
+            end++;
+        }
+        String body = highlightRange(text, start, end, queryTerms, lastTerm);
+        return (start > 0 ? "…" : "") + body + (end < text.length() ? "…" : "");
+    }
+
+    private static void appendEscaped(StringBuilder sb, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                case '\'' -> sb.append("&#39;");
+                default -> sb.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.forsakenecho.learning_management_system.search;
+
+import java.util.UUID;
+
+/**
+ * Tiêu đề khóa học cho bộ gợi ý (autocomplete), lấy bằng projection.
+ */
+public record CourseTitleRow(
+        UUID id,
+        String title,
+        boolean visible
+) {
+}
@@ -0,0 +1,459 @@
+package com.forsakenecho.learning_management_system.search;
+
+import com.forsakenecho.learning_management_system.event.CourseChangedEvent;
+import com.forsakenecho.learning_management_system.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Gợi ý tiêu đề khóa học khi gõ (autocomplete), chỉ các khóa học visible.
+ * - Trie trên tập từ (đã bỏ dấu) của các tiêu đề; mỗi từ trỏ tới các khóa học chứa nó.
+ * - Từ cuối khớp theo tiền tố, các từ trước khớp nguyên từ; cho phép sai chính tả
+ *   (khoảng cách Damerau-Levenshtein 0/1/2 tùy độ dài từ, ký tự đầu phải đúng)
+ *   bằng cách duyệt trie kèm bảng quy hoạch động.
+ * - Danh sách khóa học của mỗi từ sắp theo vị trí của từ trong tiêu đề rồi độ dài tiêu đề
+ *   (tiêu đề bắt đầu bằng từ đó, ngắn gọn được xét trước), nên có thể dừng sớm khi đã đủ
+ *   kết quả khớp (MATCHES_PER_SLOT x limit), giữ độ trễ ổn định khi catalog lớn.
+ * Cập nhật tăng dần từ CourseChangedEvent; dựng lại định kỳ để đồng bộ với thay đổi từ node khác.
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseTitleSuggester {
+
+    private static final int MAX_EXPANSIONS = 500;   // số từ tối đa một từ truy vấn được mở rộng thành
+    private static final int MAX_CANDIDATES = 20000; // số khóa học tối đa được xét mỗi truy vấn
+    private static final int MATCHES_PER_SLOT = 4;   // dừng khi đã có limit x 4 kết quả khớp
+    private static final int DRIVER_RATIO = 4;       // từ đầu tiên vẫn dẫn dắt nếu không quá 4 lần phổ biến hơn
+
+    private final CourseRepository courseRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+    private Map<UUID, Entry> entries = new HashMap<>();
+    private int nextWordId; // chỉ tăng, được ghi khi giữ synchronized
+
+    private static final class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        String word;                 // khác null nếu có từ kết thúc tại node này
+        int wordId;                  // id số của từ, để so khớp bằng int thay vì String
+        TreeSet<Posting> courses;    // các khóa học có từ này trong tiêu đề
+    }
+
+    // position: vị trí xuất hiện đầu tiên của từ trong tiêu đề
+    private record Posting(int position, int titleLength, UUID courseId, Entry entry) implements Comparable<Posting> {
+        @Override
+        public int compareTo(Posting other) {
+            int c = Integer.compare(position, other.position);
+            if (c != 0) return c;
+            c = Integer.compare(titleLength, other.titleLength);
+            return c != 0 ? c : courseId.compareTo(other.courseId);
+        }
+    }
+
+    private record Entry(String title, List<String> words, int[] wordIds) {
+    }
+
+    // Các từ trong trie khớp với một từ truy vấn: id đã sắp xếp (tra bằng binary search) kèm số lỗi
+    private static final class Expansion {
+        final int[] wordIds;
+        final int[] edits;
+        final BitSet members;        // cùng tập id, để lọc ứng viên O(1) mỗi từ của tiêu đề
+        final List<Node> nodes;      // sắp theo số lỗi tăng dần
+        final long postingSize;
+
+        Expansion(Map<Node, Integer> matched) {
+            nodes = new ArrayList<>(matched.keySet());
+            nodes.sort(Comparator.comparingInt(matched::get));
+            List<Node> byId = new ArrayList<>(nodes);
+            byId.sort(Comparator.comparingInt(n -> n.wordId));
+            wordIds = new int[byId.size()];
+            edits = new int[byId.size()];
+            members = new BitSet();
+            long size = 0;
+            for (int i = 0; i < byId.size(); i++) {
+                wordIds[i] = byId.get(i).wordId;
+                edits[i] = matched.get(byId.get(i));
+                members.set(wordIds[i]);
+                size += byId.get(i).courses.size();
+            }
+            postingSize = size;
+        }
+
+        // Số lỗi nếu từ khớp, -1 nếu không
+        int editsOf(int wordId) {
+            int index = Arrays.binarySearch(wordIds, wordId);
+            return index >= 0 ? edits[index] : -1;
+        }
+
+        boolean matchesAny(int[] titleWordIds) {
+            for (int wordId : titleWordIds) {
+                if (members.get(wordId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public record Suggestion(UUID courseId, String title) {
+    }
+
+    // ✅ Dựng trie khi ứng dụng khởi động xong
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${search.suggest.rebuild-interval-ms:600000}",
+            fixedDelayString = "${search.suggest.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        Node newRoot = new Node();
+        Map<UUID, Entry> newEntries = new HashMap<>();
+        nextWordId = 0; // trie mới -> đánh số lại từ đầu
+        for (CourseTitleRow row : courseRepository.findVisibleTitleRows()) {
+            Entry entry = toEntry(row);
+            if (entry != null) {
+                newEntries.put(row.id(), entry);
+                addWords(newRoot, row.id(), entry);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            root = newRoot;
+            entries = newEntries;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Course title suggester rebuilt with " + newEntries.size() + " courses");
+    }
+
+    // ✅ Cập nhật tăng dần sau khi transaction tạo/sửa/xóa/ẩn khóa học đã commit
+    // Order(0): chạy trước PublicResponseCache để cache bị xóa sau khi dữ liệu đã mới
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCourseChanged(CourseChangedEvent event) {
+        Entry updated = event.type() == CourseChangedEvent.ChangeType.DELETED
+                ? null
+                : courseRepository.findTitleRowById(event.courseId()).map(CourseTitleSuggester::toEntry).orElse(null);
+
+        lock.writeLock().lock();
+        try {
+            Entry old = updated == null ? entries.remove(event.courseId()) : entries.put(event.courseId(), updated);
+            if (old != null) {
+                removeWords(root, event.courseId(), old);
+            }
+            if (updated != null) {
+                addWords(root, event.courseId(), updated);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gợi ý tối đa {@code limit} khóa học có tiêu đề chứa mọi từ trong truy vấn
+     * (từ cuối là tiền tố), xếp theo số lỗi chính tả, độ liền mạch, vị trí khớp rồi độ dài tiêu đề.
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.terms(query)));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // 1. Mở rộng từng từ truy vấn thành các từ trong trie (kèm số lỗi)
+            List<Expansion> expansions = new ArrayList<>();
+            for (int i = 0; i < queryTerms.size(); i++) {
+                boolean prefix = i == queryTerms.size() - 1;
+                Map<Node, Integer> matched = expand(queryTerms.get(i), prefix);
+                if (matched.isEmpty()) {
+                    return List.of();
+                }
+                expansions.add(new Expansion(matched));
+            }
+
+            // 2. Sinh ứng viên từ từ truy vấn đầu tiên (khớp thứ tự xếp hạng: tiêu đề bắt đầu bằng từ đó trước),
+            //    trừ khi từ đó phổ biến hơn nhiều so với từ hiếm nhất; các từ còn lại kiểm tra theo thứ tự hiếm dần
+            List<Expansion> byRarity = new ArrayList<>(expansions);
+            byRarity.sort(Comparator.comparingLong(e -> e.postingSize));
+            Expansion driver = expansions.get(0).postingSize <= DRIVER_RATIO * byRarity.get(0).postingSize
+                    ? expansions.get(0)
+                    : byRarity.get(0);
+            byRarity.remove(driver);
+            List<Expansion> filters = byRarity;
+
+            PriorityQueue<Scored> top = new PriorityQueue<>(Comparator.<Scored>naturalOrder().reversed());
+            // Chỉ cần loại trùng khi từ dẫn dắt mở rộng thành nhiều từ
+            Set<UUID> seen = driver.nodes.size() > 1 ? new HashSet<>() : null;
+            int visited = 0;
+            int found = 0;
+            outer:
+            // Duyệt các từ khớp đúng trước, trong mỗi từ thì theo thứ tự của Posting
+            for (Node node : driver.nodes) {
+                for (Posting posting : node.courses) {
+                    if (seen != null && !seen.add(posting.courseId())) {
+                        continue;
+                    }
+                    if (++visited > MAX_CANDIDATES) {
+                        break outer;
+                    }
+                    if (!matchesAll(posting.entry(), filters)) {
+                        continue;
+                    }
+                    if (++found > limit * MATCHES_PER_SLOT) {
+                        break outer;
+                    }
+                    top.add(score(posting.courseId(), posting.entry(), expansions));
+                    if (top.size() > limit) {
+                        top.poll(); // bỏ ứng viên kém nhất
+                    }
+                }
+            }
+
+            List<Scored> best = new ArrayList<>(top);
+            best.sort(Comparator.naturalOrder());
+            return best.stream().map(s -> new Suggestion(s.courseId(), s.title())).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Điểm càng nhỏ càng tốt: ít lỗi chính tả, các từ đứng liền nhau đúng thứ tự, khớp sớm, tiêu đề ngắn
+    private record Scored(UUID courseId, String title, int edits, int gaps, int firstPosition, int length)
+            implements Comparable<Scored> {
+        @Override
+        public int compareTo(Scored other) {
+            int c = Integer.compare(edits, other.edits);
+            if (c != 0) return c;
+            c = Integer.compare(gaps, other.gaps);
+            if (c != 0) return c;
+            c = Integer.compare(firstPosition, other.firstPosition);
+            if (c != 0) return c;
+            c = Integer.compare(length, other.length);
+            if (c != 0) return c;
+            return title.compareTo(other.title);
+        }
+    }
+
+    private static boolean matchesAll(Entry entry, List<Expansion> filters) {
+        for (Expansion filter : filters) {
+            if (!filter.matchesAny(entry.wordIds())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Gọi khi tiêu đề đã chứa đủ mọi từ truy vấn
+    private static Scored score(UUID courseId, Entry entry, List<Expansion> expansions) {
+        int totalEdits = 0;
+        int gaps = 0;
+        int firstPosition = 0;
+        int previousPosition = -1;
+        int[] wordIds = entry.wordIds();
+        for (int i = 0; i < expansions.size(); i++) {
+            Expansion expansion = expansions.get(i);
+            int bestEdits = Integer.MAX_VALUE;
+            int bestPosition = -1;
+            for (int p = 0; p < wordIds.length; p++) {
+                int edits = expansion.editsOf(wordIds[p]);
+                // Cùng số lỗi thì ưu tiên vị trí ngay sau từ trước đó
+                if (edits >= 0 && (edits < bestEdits || (edits == bestEdits && p == previousPosition + 1))) {
+                    bestEdits = edits;
+                    bestPosition = p;
+                }
+            }
+            totalEdits += bestEdits;
+            if (i == 0) {
+                firstPosition = bestPosition;
+            } else if (bestPosition != previousPosition + 1) {
+                gaps++;
+            }
+            previousPosition = bestPosition;
+        }
+        return new Scored(courseId, entry.title(), totalEdits, gaps, firstPosition, entry.title().length());
+    }
+
+    // Số lỗi cho phép theo độ dài từ: ngắn thì phải đúng, dài thì cho sai tối đa 2 ký tự
+    static int maxEdits(String term) {
+        if (term.length() <= 3) {
+            return 0;
+        }
+        return term.length() <= 6 ? 1 : 2;
+    }
+
+    private Map<Node, Integer> expand(String term, boolean prefix) {
+        Map<Node, Integer> matched = new HashMap<>();
+        // Khớp chính xác trước để không bị giới hạn MAX_EXPANSIONS cắt mất
+        Node exact = findNode(root, term);
+        if (exact != null) {
+            if (prefix) {
+                collectSubtree(exact, 0, matched);
+            } else if (exact.word != null) {
+                matched.put(exact, 0);
+            }
+        }
+
+        int maxEdits = maxEdits(term);
+        if (maxEdits > 0 && matched.size() < MAX_EXPANSIONS) {
+            int[] firstRow = new int[term.length() + 1];
+            for (int i = 0; i <= term.length(); i++) {
+                firstRow[i] = i;
+            }
+            // Ký tự đầu phải gõ đúng (hiếm khi sai) nên chỉ duyệt nhánh của nó: số node phải xét giảm ~26 lần
+            Node first = root.children.get(term.charAt(0));
+            if (first != null) {
+                fuzzy(first, term.charAt(0), (char) 0, term, null, firstRow, maxEdits, prefix,
+                        prefix ? firstRow[term.length()] : Integer.MAX_VALUE, matched);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Duyệt trie kèm một hàng của bảng Damerau-Levenshtein (từ truy vấn x tiền tố của node);
+     * hai hàng trước được giữ lại để tính phép đảo hai ký tự liền nhau ("pyhton" -> "python").
+     * Với chế độ tiền tố, một từ khớp nếu có tiền tố nào của nó cách từ truy vấn không quá maxEdits.
+     */
+    private static void fuzzy(Node node, char letter, char previousLetter, String term,
+                              int[] secondPreviousRow, int[] previousRow, int maxEdits,
+                              boolean prefix, int bestPrefixDistance, Map<Node, Integer> matched) {
+        if (matched.size() >= MAX_EXPANSIONS) {
+            return;
+        }
+        int columns = term.length() + 1;
+        int[] row = new int[columns];
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+        for (int i = 1; i < columns; i++) {
+            int cost = term.charAt(i - 1) == letter ? 0 : 1;
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previousRow[i] + 1), previousRow[i - 1] + cost);
+            if (secondPreviousRow != null && i > 1
+                    && term.charAt(i - 1) == previousLetter && term.charAt(i - 2) == letter) {
+                row[i] = Math.min(row[i], secondPreviousRow[i - 2] + 1);
+            }
+            rowMin = Math.min(rowMin, row[i]);
+        }
+
+        int distance = row[columns - 1];
+        if (prefix) {
+            bestPrefixDistance = Math.min(bestPrefixDistance, distance);
+        }
+        int edits = prefix ? bestPrefixDistance : distance;
+        if (node.word != null && edits <= maxEdits) {
+            matched.merge(node, edits, Math::min);
+        }
+
+        // Cắt nhánh: không còn cách nào quay về trong ngưỡng (trừ khi đã có tiền tố khớp).
+        // Node con có thể dùng phép đảo từ hàng trước (+1), nên phải xét cả hàng đó.
+        int previousRowMin = Integer.MAX_VALUE;
+        for (int value : previousRow) {
+            previousRowMin = Math.min(previousRowMin, value);
+        }
+        if (Math.min(rowMin, previousRowMin + 1) > maxEdits && !(prefix && bestPrefixDistance <= maxEdits)) {
+            return;
+        }
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            fuzzy(child.getValue(), child.getKey(), letter, term, previousRow, row, maxEdits, prefix,
+                    bestPrefixDistance, matched);
+        }
+    }
+
+    private static void collectSubtree(Node node, int edits, Map<Node, Integer> matched) {
+        if (matched.size() >= MAX_EXPANSIONS) {
+            return;
+        }
+        if (node.word != null) {
+            matched.merge(node, edits, Math::min);
+        }
+        for (Node child : node.children.values()) {
+            collectSubtree(child, edits, matched);
+        }
+    }
+
+    private static Node findNode(Node root, String word) {
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.children.get(word.charAt(i));
+        }
+        return node;
+    }
+
+    private static Entry toEntry(CourseTitleRow row) {
+        if (!row.visible() || row.title() == null || row.title().isBlank()) {
+            return null;
+        }
+        List<String> words = List.copyOf(TextNormalizer.terms(row.title()));
+        return new Entry(row.title(), words, new int[words.size()]);
+    }
+
+    // Thêm các từ của tiêu đề vào trie và gán id số của từng từ vào entry
+    private void addWords(Node root, UUID courseId, Entry entry) {
+        for (int w = 0; w < entry.words().size(); w++) {
+            String word = entry.words().get(w);
+            int position = entry.words().indexOf(word);
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+            }
+            if (node.word == null) {
+                node.word = word;
+                node.wordId = nextWordId++;
+                node.courses = new TreeSet<>();
+            }
+            if (position == w) {
+                node.courses.add(new Posting(position, entry.title().length(), courseId, entry));
+            }
+            entry.wordIds()[w] = node.wordId;
+        }
+    }
+
+    private static void removeWords(Node root, UUID courseId, Entry entry) {
+        for (String word : new HashSet<>(entry.words())) {
+            Posting posting = new Posting(entry.words().indexOf(word), entry.title().length(), courseId, entry);
+            removeWord(root, word, 0, posting);
+        }
+    }
+
+    // Trả về true nếu node con không còn dùng và có thể xóa khỏi cha
+    private static boolean removeWord(Node node, String word, int depth, Posting posting) {
+        if (depth == word.length()) {
+            if (node.courses != null) {
+                node.courses.remove(posting);
+                if (node.courses.isEmpty()) {
+                    node.courses = null;
+                    node.word = null;
+                }
+            }
+        } else {
+            Node child = node.children.get(word.charAt(depth));
+            if (child != null && removeWord(child, word, depth + 1, posting)) {
+                node.children.remove(word.charAt(depth));
+            }
+        }
+        return node.word == null && node.children.isEmpty();
+    }
+}
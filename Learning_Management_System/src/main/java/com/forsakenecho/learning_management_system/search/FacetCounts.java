@@ -0,0 +1,20 @@
+package com.forsakenecho.learning_management_system.search;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Số khóa học visible theo category và theo khoảng giá.
+ *
+ * @param total              tổng số khóa học được đếm
+ * @param categories         category -> số khóa học
+ * @param priceBands         khoảng giá -> số khóa học
+ * @param categoryPriceBands category -> (khoảng giá -> số khóa học)
+ */
+public record FacetCounts(
+        long total,
+        Map<String, Long> categories,
+        Map<String, Long> priceBands,
+        Map<String, Map<String, Long>> categoryPriceBands
+) implements Serializable {
+}
@@ -0,0 +1,88 @@
+package com.forsakenecho.learning_management_system.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chuẩn hóa văn bản tiếng Việt cho tìm kiếm: bỏ dấu, đ -> d, chữ thường.
+ * fold() giữ nguyên độ dài chuỗi (1 ký tự -> 1 ký tự) nên vị trí token khớp với văn bản gốc,
+ * dùng được để highlight.
+ * Văn bản dạng NFD (dấu là ký tự kết hợp riêng, vd. gõ trên macOS): dấu kết hợp được giữ nguyên khi fold,
+ * tokenize coi nó là một phần của token nhưng bỏ khỏi term, nên "Tiếng" NFD và NFC cho cùng term "tieng".
+ */
+public final class TextNormalizer {
+
+    private TextNormalizer() {
+    }
+
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        char[] out = new char[text.length()];
+        for (int i = 0; i < text.length(); i++) {
+            out[i] = foldChar(text.charAt(i));
+        }
+        return new String(out);
+    }
+
+    private static char foldChar(char c) {
+        if (c < 128) {
+            return Character.toLowerCase(c);
+        }
+        if (c == 'đ' || c == 'Đ') {
+            return 'd';
+        }
+        // Tách dấu (NFD) rồi lấy ký tự gốc: "ậ" -> "a" + dấu
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        return Character.toLowerCase(decomposed.charAt(0));
+    }
+
+    public record Token(String term, int start, int end) {
+    }
+
+    // Tách token (chuỗi chữ/số liên tiếp, kể cả dấu kết hợp) trên văn bản đã fold, kèm vị trí trong văn bản gốc
+    public static List<Token> tokenize(String text) {
+        String folded = fold(text);
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < folded.length()) {
+            if (!Character.isLetterOrDigit(folded.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            boolean hasMark = false;
+            while (i < folded.length() && isWordChar(folded.charAt(i))) {
+                hasMark |= isCombiningMark(folded.charAt(i));
+                i++;
+            }
+            tokens.add(new Token(hasMark ? stripMarks(folded, start, i) : folded.substring(start, i), start, i));
+        }
+        return tokens;
+    }
+
+    // Ký tự thuộc một từ: chữ, số hoặc dấu kết hợp (NFD) đi sau chữ
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || isCombiningMark(c);
+    }
+
+    private static boolean isCombiningMark(char c) {
+        return Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    private static String stripMarks(String folded, int start, int end) {
+        StringBuilder term = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            if (!isCombiningMark(folded.charAt(i))) {
+                term.append(folded.charAt(i));
+            }
+        }
+        return term.toString();
+    }
+
+    public static List<String> terms(String text) {
+        return tokenize(text).stream().map(Token::term).toList();
+    }
+}
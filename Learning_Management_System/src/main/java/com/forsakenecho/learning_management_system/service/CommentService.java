@@ -1,5 +1,6 @@
 package com.forsakenecho.learning_management_system.service;
 
+import com.forsakenecho.learning_management_system.cache.PublicResponseCache;
 import com.forsakenecho.learning_management_system.dto.CommentDto;
 import com.forsakenecho.learning_management_system.entity.Comment;
 import com.forsakenecho.learning_management_system.entity.Course;
@@ -27,6 +28,7 @@ public class CommentService {
     private final CourseRepository courseRepository;
     private final CourseManagementRepository courseManagementRepository;
     private final UserRepository userRepository;
+    private final PublicResponseCache publicResponseCache;
 
     public CommentDto addComment(UUID courseId, String content, UUID parentId, User user) {
         Course course = courseRepository.findById(courseId)
@@ -54,7 +56,9 @@ public class CommentService {
                 .author(user)
                 .build();
 
-        return CommentDto.from(commentRepository.save(comment));
+        CommentDto saved = CommentDto.from(commentRepository.save(comment));
+        publicResponseCache.evictCourse(courseId);
+        return saved;
     }
 
     public List<CommentDto> getCommentsByCourse(UUID courseId) {
@@ -89,7 +93,9 @@ public class CommentService {
                 .orElseThrow(() -> new RuntimeException("Bạn không có quyền chỉnh sửa bình luận này"));
 
         comment.setContent(newContent);
-        return CommentDto.from(commentRepository.save(comment));
+        CommentDto saved = CommentDto.from(commentRepository.save(comment));
+        publicResponseCache.evictCourse(comment.getCourse().getId());
+        return saved;
     }
 
     public void deleteComment(UUID commentId, User user) {
@@ -101,6 +107,7 @@ public class CommentService {
         }
 
         commentRepository.delete(comment);
+        publicResponseCache.evictCourse(comment.getCourse().getId());
     }
 }
 
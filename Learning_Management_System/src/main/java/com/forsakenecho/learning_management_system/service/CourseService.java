@@ -2,17 +2,34 @@
 package com.forsakenecho.learning_management_system.service;
 
 import com.forsakenecho.learning_management_system.dto.CourseResponse;
+import com.forsakenecho.learning_management_system.dto.CourseWithLessonsResponse;
 import com.forsakenecho.learning_management_system.dto.CreateCourseRequest;
+import com.forsakenecho.learning_management_system.dto.CreateCourseWithLessonsRequest;
+import com.forsakenecho.learning_management_system.dto.CursorPage;
+import com.forsakenecho.learning_management_system.dto.FacetedPage;
+import com.forsakenecho.learning_management_system.dto.KeysetCursor;
+import com.forsakenecho.learning_management_system.dto.LessonOutlineResponse;
 import com.forsakenecho.learning_management_system.entity.Course;
 import com.forsakenecho.learning_management_system.entity.CourseManagement;
 import com.forsakenecho.learning_management_system.entity.User;
 import com.forsakenecho.learning_management_system.enums.CourseAccessType;
+import com.forsakenecho.learning_management_system.enums.CourseCategory;
 import com.forsakenecho.learning_management_system.enums.Role;
+import com.forsakenecho.learning_management_system.event.CourseChangedEvent;
+import com.forsakenecho.learning_management_system.recommendation.CoPurchaseRecommender;
 import com.forsakenecho.learning_management_system.repository.CourseManagementRepository;
 import com.forsakenecho.learning_management_system.repository.CourseRepository;
 import com.forsakenecho.learning_management_system.repository.UserRepository;
+import com.forsakenecho.learning_management_system.search.CourseFacetService;
+import com.forsakenecho.learning_management_system.search.CourseSearchIndex;
+import com.forsakenecho.learning_management_system.search.CourseTitleSuggester;
+import com.forsakenecho.learning_management_system.search.FacetCounts;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
@@ -22,8 +39,13 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +55,12 @@ public class CourseService {
     private final CourseRepository courseRepository;
     private final FileStorageService fileStorageService;
     private final UserRepository userRepository;
+    private final CourseSearchIndex courseSearchIndex;
+    private final CourseFacetService courseFacetService;
+    private final CourseTitleSuggester courseTitleSuggester;
+    private final CoPurchaseRecommender coPurchaseRecommender;
+    private final LessonService lessonService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Course createCourse(CreateCourseRequest request, User creator, MultipartFile imageFile, String externalImageUrl) throws IOException {
         Course newCourse = Course.builder()
@@ -62,12 +90,35 @@ public class CourseService {
                 .build();
         courseManagementRepository.save(courseManagement);
 
+        eventPublisher.publishEvent(new CourseChangedEvent(savedCourse.getId(), CourseChangedEvent.ChangeType.CREATED));
         return savedCourse;
     }
 
 
 
-    // PHƯƠNG THỨC NÀY ĐƯỢC SỬ DỤNG CHO DANH SÁCH KHÓA HỌC ĐÃ MUA CÓ PHÂN TRANG
+    /**
+     * Tạo khóa học cùng toàn bộ bài học trong một transaction (dùng cho soạn khóa học bằng AI),
+     * thay cho 1 request + 1 transaction cho mỗi bài học.
+     */
+    @Transactional
+    public CourseWithLessonsResponse createCourseWithLessons(CreateCourseWithLessonsRequest request, User creator) throws IOException {
+        CreateCourseRequest courseRequest = new CreateCourseRequest(
+                request.getTitle(), request.getDescription(), request.getCategory(), request.getPrice(), request.getImageUrl());
+        Course course = createCourse(courseRequest, creator, null, request.getImageUrl());
+        course.setVisible(request.isVisible());
+
+        List<LessonOutlineResponse> lessons = lessonService.createLessons(course, request.getLessons());
+        return CourseWithLessonsResponse.builder()
+                .course(CourseResponse.from(course))
+                .lessons(lessons)
+                .build();
+    }
+
+    // ✅ Danh sách khóa học đã mua có phân trang: projection một query (course + creator)
+    public Page<CourseResponse> getPurchasedCourses(UUID studentId, Pageable pageable) {
+        return courseManagementRepository.findCourseResponsesByUserIdAndAccessType(studentId, CourseAccessType.PURCHASED, pageable);
+    }
+
     public Page<Course> getCoursesByUserAndAccessType(UUID userId, CourseAccessType type, Pageable pageable) {
         if (type == CourseAccessType.PURCHASED) {
             // Sử dụng phương thức mới chỉ lấy các khóa học đã mua VÀ visible
@@ -87,17 +138,24 @@ public class CourseService {
 
     // Phương thức này có thể không cần thiết nữa nếu dùng getExploreCoursesForStudent
     public Page<Course> getVisibleCoursesNotPurchased(UUID studentId, Pageable pageable) {
-        List<UUID> purchasedIds = courseManagementRepository
-                .findByUserIdAndAccessType(studentId, CourseAccessType.PURCHASED)
-                .stream()
-                .map(cm -> cm.getCourse().getId())
-                .toList();
+        Specification<Course> spec = Specification.where((root, query, cb) -> cb.isTrue(root.get("visible")));
+        return courseRepository.findAll(spec.and(notPurchasedBy(studentId)), pageable);
+    }
 
-        if (purchasedIds.isEmpty()) {
-            return courseRepository.findByVisibleTrue(pageable);
-        } else {
-            return courseRepository.findByVisibleTrueAndIdNotIn(purchasedIds, pageable);
-        }
+    // ✅ Anti-join: NOT EXISTS (khóa học đã mua) thay cho NOT IN (danh sách id nạp sẵn)
+    // Dùng index course_management(user_id, access_type, course_id)
+    private static Specification<Course> notPurchasedBy(UUID studentId) {
+        return (root, query, cb) -> {
+            Subquery<Integer> purchased = query.subquery(Integer.class);
+            Root<CourseManagement> cm = purchased.from(CourseManagement.class);
+            purchased.select(cb.literal(1))
+                    .where(
+                            cb.equal(cm.get("user").get("id"), studentId),
+                            cb.equal(cm.get("accessType"), CourseAccessType.PURCHASED),
+                            cb.equal(cm.get("course"), root)
+                    );
+            return cb.not(cb.exists(purchased));
+        };
     }
 
     public Course getCourseByIdForTeacher(UUID courseId, UUID teacherId) {
@@ -141,7 +199,9 @@ public class CourseService {
         }
         existingCourse.setImageUrl(finalImageUrl);
 
-        return courseRepository.save(existingCourse);
+        Course savedCourse = courseRepository.save(existingCourse);
+        eventPublisher.publishEvent(new CourseChangedEvent(savedCourse.getId(), CourseChangedEvent.ChangeType.UPDATED));
+        return savedCourse;
     }
 
     public void deleteCourse(UUID courseId, UUID teacherId) {
@@ -157,6 +217,7 @@ public class CourseService {
         }
 
         courseRepository.delete(existingCourse);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId, CourseChangedEvent.ChangeType.DELETED));
     }
 
     @Transactional
@@ -175,6 +236,7 @@ public class CourseService {
 
         course.setVisible(!course.isVisible());
         courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId, CourseChangedEvent.ChangeType.VISIBILITY));
     }
 
     public Course getCoursePreviewByTeacher(UUID courseId, UUID teacherId) {
@@ -190,88 +252,127 @@ public class CourseService {
     }
 
     // Cập nhật phương thức searchCourses (vẫn dùng cho Public search)
-    public Page<CourseResponse> searchCourses(String keyword, String category, Pageable pageable) {
-        Specification<Course> spec = Specification.where(null); // Bắt đầu với một Specification rỗng
-
-        // 1. Luôn lọc theo visible = true
-        spec = spec.and((root, query, cb) -> cb.isTrue(root.get("visible")));
-
-        // 2. Lọc theo keyword (tìm kiếm trong title hoặc description)
+    // ✅ Có từ khóa: dùng inverted index (BM25, bỏ dấu, highlight), kết quả sắp theo độ liên quan
+    // Không có từ khóa: chỉ lọc visible/category
+    // ✅ Kết quả kèm facet (category, khoảng giá) lấy từ bộ đếm trong bộ nhớ, không chạy thêm query đếm
+    public FacetedPage<CourseResponse> searchCourses(String keyword, String category, Pageable pageable) {
         if (keyword != null && !keyword.trim().isEmpty()) {
-            String lowerCaseKeyword = "%" + keyword.toLowerCase() + "%";
-            spec = spec.and((root, query, cb) ->
-                    cb.or(
-                            cb.like(cb.lower(root.get("title")), lowerCaseKeyword),
-                            cb.like(cb.lower(root.get("description")), lowerCaseKeyword)
-                    )
-            );
+            return searchCoursesByIndex(keyword, category, pageable);
         }
 
-        // 3. Lọc theo category
-        if (category != null && !category.trim().isEmpty()) {
-            spec = spec.and((root, query, cb) -> cb.equal(root.get("category"), category));
+        // Không có từ khóa: chỉ lọc visible + category, projection một query
+        Page<CourseResponse> page = courseRepository.findVisibleResponses(parseCategory(category), pageable);
+        return new FacetedPage<>(page.getContent(), page.getPageable(), page.getTotalElements(),
+                courseFacetService.getCounts());
+    }
+
+    // ✅ Gợi ý tiêu đề khi gõ: trie trong bộ nhớ, bỏ dấu, cho phép sai chính tả nhẹ
+    public List<CourseTitleSuggester.Suggestion> suggestCourses(String query, int limit) {
+        return courseTitleSuggester.suggest(query, Math.min(Math.max(limit, 1), 20));
+    }
+
+    // ✅ "Học viên mua khóa này cũng mua": xếp hạng trong bộ nhớ, chỉ load response của các khóa được chọn
+    public List<CourseResponse> getCoPurchaseRecommendations(UUID courseId, UUID studentId, int limit) {
+        Set<UUID> owned = new HashSet<>(
+                courseManagementRepository.findCourseIdsByUserIdAndAccessType(studentId, CourseAccessType.PURCHASED));
+        owned.add(courseId);
+
+        // Lấy dư một ít để bù các khóa bị ẩn/xóa sau khi chỉ mục được dựng
+        int size = Math.min(Math.max(limit, 1), 20);
+        List<UUID> ids = coPurchaseRecommender.recommend(courseId, owned, size * 2).stream()
+                .map(CoPurchaseRecommender.Recommendation::courseId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
         }
+        Map<UUID, CourseResponse> coursesById = courseRepository.findResponsesByIdIn(ids).stream()
+                .filter(CourseResponse::isVisible)
+                .collect(Collectors.toMap(CourseResponse::getId, Function.identity()));
+        return ids.stream()
+                .map(coursesById::get)
+                .filter(Objects::nonNull)
+                .limit(size)
+                .toList();
+    }
 
-        Page<Course> coursesPage = courseRepository.findAll(spec, pageable); // Sử dụng findAll với Specification
-        return coursesPage.map(CourseResponse::from);
+    private FacetedPage<CourseResponse> searchCoursesByIndex(String keyword, String category, Pageable pageable) {
+        CourseSearchIndex.SearchResult result =
+                courseSearchIndex.search(keyword, category, pageable.getOffset(), pageable.getPageSize());
+
+        // Chỉ load các khóa học của trang hiện tại, giữ đúng thứ tự xếp hạng
+        List<UUID> pageIds = result.hits().stream().map(CourseSearchIndex.Hit::courseId).toList();
+        Map<UUID, CourseResponse> coursesById = courseRepository.findResponsesByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(CourseResponse::getId, Function.identity()));
+
+        List<CourseResponse> content = result.hits().stream()
+                .map(hit -> {
+                    CourseResponse response = coursesById.get(hit.courseId());
+                    if (response == null) {
+                        return null; // vừa bị xóa, index sẽ được cập nhật qua event
+                    }
+                    response.setHighlightedTitle(hit.highlightedTitle());
+                    response.setSnippet(hit.snippet());
+                    return response;
+                })
+                .filter(Objects::nonNull)
+                .toList();
+        // Facet đếm trên toàn bộ kết quả khớp từ khóa (chưa lọc category)
+        FacetCounts facets = courseFacetService.countFor(result.matchedIds());
+        return new FacetedPage<>(content, pageable, result.total(), facets);
     }
 
     // PHƯƠNG THỨC MỚI: Lấy các khóa học để sinh viên "khám phá" (chưa mua, visible, có thể lọc theo category)
+    // ✅ Projection một query: visible, NOT EXISTS (đã mua), lọc category nếu có
     public Page<CourseResponse> getExploreCoursesForStudent(UUID studentId, String category, Pageable pageable) {
-        // Lấy danh sách ID các khóa học đã mua bởi sinh viên
-        List<UUID> purchasedCourseIds = courseManagementRepository
-                .findByUserIdAndAccessType(studentId, CourseAccessType.PURCHASED)
-                .stream()
-                .map(cm -> cm.getCourse().getId())
-                .collect(Collectors.toList());
+        return courseRepository.findExploreResponses(studentId, parseCategory(category), pageable);
+    }
 
-        Specification<Course> spec = Specification.where(null);
 
-        // 1. Luôn lọc các khóa học visible
-        spec = spec.and((root, query, cb) -> cb.isTrue(root.get("visible")));
+    // ✅ Explore theo cursor (keyset): không OFFSET, không COUNT
+    public CursorPage<CourseResponse> getExploreCoursesKeyset(UUID studentId, String category, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<CourseResponse> rows = courseRepository.findExploreKeyset(studentId, parseCategory(category),
+                after.createdAt(), after.id(), PageRequest.of(0, size + 1));
+        return CursorPage.of(rows, size, c -> new KeysetCursor(c.getCreatedAt(), c.getId()));
+    }
 
-        // 2. Loại trừ các khóa học đã mua
-        if (!purchasedCourseIds.isEmpty()) {
-            spec = spec.and((root, query, cb) -> root.get("id").in(purchasedCourseIds).not());
-        }
+    // ✅ Khóa học đã tạo của giáo viên theo cursor (keyset)
+    public CursorPage<CourseResponse> getCreatedCoursesKeyset(UUID teacherId, String category, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<CourseResponse> rows = courseRepository.findByCreatorKeyset(teacherId, parseCategory(category),
+                after.createdAt(), after.id(), PageRequest.of(0, size + 1));
+        return CursorPage.of(rows, size, c -> new KeysetCursor(c.getCreatedAt(), c.getId()));
+    }
 
-        // 3. Lọc theo category nếu có
-        if (category != null && !category.trim().isEmpty()) {
-            spec = spec.and((root, query, cb) -> cb.equal(root.get("category"), category));
+    private static CourseCategory parseCategory(String category) {
+        if (category == null || category.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return CourseCategory.valueOf(category.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Danh mục không hợp lệ: " + category);
         }
-
-        Page<Course> coursesPage = courseRepository.findAll(spec, pageable);
-        return coursesPage.map(CourseResponse::from);
     }
 
-
     // PHƯƠNG THỨC MỚI: Lấy các khóa học đã tạo bởi giáo viên (có thể lọc theo category)
+    // Giáo viên thấy tất cả khóa học của mình (ẩn hay không ẩn), chỉ lọc theo category
     public Page<CourseResponse> getCreatedCoursesForTeacher(UUID teacherId, String category, Pageable pageable) {
-        Specification<Course> spec = Specification.where(null);
-
-        // 1. Lọc theo người tạo (giáo viên)
-        spec = spec.and((root, query, cb) -> cb.equal(root.get("creator").get("id"), teacherId));
-
-        // 2. Lọc theo category nếu có (Giáo viên muốn thấy tất cả khóa học của họ, ẩn hay không ẩn, chỉ lọc theo category)
-        if (category != null && !category.trim().isEmpty()) {
-            spec = spec.and((root, query, cb) -> cb.equal(root.get("category"), category));
-        }
-
-        Page<Course> coursesPage = courseRepository.findAll(spec, pageable);
-        return coursesPage.map(CourseResponse::from);
+        return courseRepository.findResponsesByCreator(teacherId, parseCategory(category), pageable);
     }
 
-    // Phương thức để lấy tất cả các danh mục duy nhất
+    // Các danh mục đang có khóa học visible (từ bộ đếm facet, không SELECT DISTINCT)
     public List<String> getAllDistinctCategories() {
-        return courseRepository.findDistinctCategories();
+        return courseFacetService.getAvailableCategories();
+    }
+
+    public FacetCounts getCourseFacets() {
+        return courseFacetService.getCounts();
     }
 
     // PHƯƠNG THỨC MỚI: Lấy ID của các khóa học đã mua bởi một sinh viên
     public List<UUID> getPurchasedCourseIds(UUID studentId) {
-        return courseManagementRepository.findByUserIdAndAccessType(studentId, CourseAccessType.PURCHASED)
-                .stream()
-                .map(cm -> cm.getCourse().getId())
-                .collect(Collectors.toList());
+        return courseManagementRepository.findCourseIdsByUserIdAndAccessType(studentId, CourseAccessType.PURCHASED);
     }
 
     // Ví dụ về phương thức tính rating (nếu bạn có)
@@ -0,0 +1,125 @@
+package com.forsakenecho.learning_management_system.service;
+
+import com.forsakenecho.learning_management_system.entity.CourseStats;
+import com.forsakenecho.learning_management_system.event.CourseChangedEvent;
+import com.forsakenecho.learning_management_system.repository.CourseStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cập nhật course_stats cùng transaction với thao tác ghi (đánh giá, mua, thêm/xóa bài học).
+ * Mỗi thay đổi là một câu UPDATE cộng dồn; nếu khóa học chưa có dòng thống kê thì tính lại từ bảng gốc.
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseStatsService {
+
+    private final CourseStatsRepository courseStatsRepository;
+
+    public void ratingAdded(UUID courseId, int value) {
+        if (courseStatsRepository.addRating(courseId, 1, value, LocalDateTime.now()) == 0) {
+            reconcile(courseId);
+        }
+    }
+
+    public void ratingChanged(UUID courseId, int oldValue, int newValue) {
+        if (oldValue == newValue) {
+            return;
+        }
+        if (courseStatsRepository.addRating(courseId, 0, newValue - oldValue, LocalDateTime.now()) == 0) {
+            reconcile(courseId);
+        }
+    }
+
+    public void enrollmentAdded(UUID courseId) {
+        if (courseStatsRepository.addEnrollments(courseId, 1, LocalDateTime.now()) == 0) {
+            reconcile(courseId);
+        }
+    }
+
+    public void lessonAdded(UUID courseId) {
+        lessonsAdded(courseId, 1);
+    }
+
+    public void lessonsAdded(UUID courseId, int count) {
+        if (courseStatsRepository.addLessons(courseId, count, LocalDateTime.now()) == 0) {
+            reconcile(courseId);
+        }
+    }
+
+    public void lessonRemoved(UUID courseId) {
+        if (courseStatsRepository.addLessons(courseId, -1, LocalDateTime.now()) == 0) {
+            reconcile(courseId);
+        }
+    }
+
+    public Optional<CourseStats> getStats(UUID courseId) {
+        return courseStatsRepository.findById(courseId);
+    }
+
+    public void reconcile(UUID courseId) {
+        courseStatsRepository.reconcile(List.of(toBinary(courseId)));
+    }
+
+    /**
+     * Tính lại toàn bộ theo từng lô id khóa học (mỗi lô một transaction ngắn), rồi xóa dòng mồ côi.
+     *
+     * @return số khóa học đã đối soát
+     */
+    public long reconcileAll(int batchSize) {
+        long total = 0;
+        UUID after = new UUID(0L, 0L);
+        List<UUID> ids;
+        do {
+            ids = courseStatsRepository.findCourseIdsAfter(after, PageRequest.of(0, batchSize));
+            if (!ids.isEmpty()) {
+                courseStatsRepository.reconcile(ids.stream().map(CourseStatsService::toBinary).toList());
+                total += ids.size();
+                after = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize);
+        courseStatsRepository.deleteOrphans();
+        return total;
+    }
+
+    // Tạo dòng thống kê cho các khóa học còn thiếu, theo từng lô
+    public long fillMissing(int batchSize) {
+        long total = 0;
+        List<UUID> ids;
+        do {
+            ids = courseStatsRepository.findCourseIdsWithoutStats(PageRequest.of(0, batchSize));
+            if (!ids.isEmpty()) {
+                courseStatsRepository.reconcile(ids.stream().map(CourseStatsService::toBinary).toList());
+                total += ids.size();
+            }
+        } while (ids.size() == batchSize);
+        return total;
+    }
+
+    // UUID -> 16 byte (big-endian), cùng định dạng cột BINARY(16) mà Hibernate ghi
+    private static byte[] toBinary(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    // ✅ Khóa học bị xóa -> xóa dòng thống kê (sau commit nên cần transaction mới)
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.type() == CourseChangedEvent.ChangeType.DELETED) {
+            courseStatsRepository.deleteById(event.courseId());
+        }
+    }
+}
@@ -2,18 +2,50 @@ package com.forsakenecho.learning_management_system.service;
 
 import com.forsakenecho.learning_management_system.entity.User;
 import com.forsakenecho.learning_management_system.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 @Service
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
+    // ✅ Cache principal theo email để JwtFilter không query users mỗi request
+    private final Cache<String, User> principalCache;
+    private volatile LocalDateTime lastSync = LocalDateTime.now();
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                                    @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.principalCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds)) // giới hạn an toàn nếu bỏ sót invalidate
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, principalCache, "principalCache");
+        Gauge.builder("principal.cache.hit.ratio", principalCache, c -> c.stats().hitRate())
+                .description("Tỉ lệ hit của cache UserDetails trong JwtFilter")
+                .register(meterRegistry);
+    }
+
     /**
      * Phương thức này được Spring Security gọi trong quá trình xác thực
      * để tải thông tin người dùng dựa trên username (email trong trường hợp của bạn).
@@ -24,14 +56,57 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // 1. Tìm người dùng trong cơ sở dữ liệu của bạn bằng username (email)
+        // 1. Tìm người dùng trong cache, nếu chưa có thì tìm trong cơ sở dữ liệu bằng username (email)
         // Lớp User của bạn đã implements UserDetails, nên có thể trả về trực tiếp.
         // Bạn đã chọn `email` làm `username` trong lớp User của mình.
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(() ->
-                        new UsernameNotFoundException("User not found with email: " + username));
+        User user = principalCache.get(username, email -> userRepository.findByEmail(email).orElse(null));
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found with email: " + username);
+        }
 
         // 2. Trả về đối tượng User của bạn (đã implement UserDetails)
         return user;
     }
-}
\ No newline at end of file
+
+    /**
+     * Spring Security gọi khi hash mật khẩu cần nâng cấp (cost factor cũ), sau khi đăng nhập thành công.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        evictUser(user.getEmail());
+        return user;
+    }
+
+    /**
+     * Xóa user khỏi cache khi role, status, mật khẩu hoặc số dư thay đổi.
+     * Nếu đang trong transaction thì xóa thêm một lần sau commit để request khác không nạp lại dữ liệu cũ.
+     */
+    public void evictUser(String email) {
+        if (email == null) {
+            return;
+        }
+        principalCache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.invalidate(email);
+                }
+            });
+        }
+    }
+
+    // ✅ Đồng bộ giữa các node: user nào có updatedAt mới thì xóa khỏi cache
+    @Scheduled(fixedDelayString = "${security.principal-cache.sync-interval-ms:5000}")
+    public void syncChangedUsers() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        // Lùi lại 1 phút để bù sai lệch đồng hồ giữa các node
+        userRepository.findEmailsUpdatedAfter(lastSync.minusMinutes(1))
+                .forEach(principalCache::invalidate);
+        lastSync = startedAt;
+    }
+}
@@ -3,16 +3,23 @@ package com.forsakenecho.learning_management_system.service;
 import com.forsakenecho.learning_management_system.dto.CourseProgressSummaryDTO;
 import com.forsakenecho.learning_management_system.dto.LearningProgressDTO;
 import com.forsakenecho.learning_management_system.dto.LessonProgressDTO;
+import com.forsakenecho.learning_management_system.dto.LessonStepProgressDTO;
+import com.forsakenecho.learning_management_system.dto.LessonStepUpdateRequest;
 import com.forsakenecho.learning_management_system.entity.Course;
 import com.forsakenecho.learning_management_system.entity.LearningProgress;
 import com.forsakenecho.learning_management_system.entity.User;
+import com.forsakenecho.learning_management_system.entity.UuidV7Generator;
+import com.forsakenecho.learning_management_system.enums.LessonStep;
 import com.forsakenecho.learning_management_system.repository.CourseRepository;
 import com.forsakenecho.learning_management_system.repository.LearningProgressRepository;
 import com.forsakenecho.learning_management_system.repository.LessonRepository;
+import com.forsakenecho.learning_management_system.repository.LessonStepProgressRepository;
 import com.forsakenecho.learning_management_system.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -26,6 +33,7 @@ public class LearningProgressService {
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final LessonRepository lessonRepository;
+    private final LessonStepProgressRepository stepProgressRepository;
 
     private LearningProgress getOrCreate(UUID studentId, UUID courseId) {
         return progressRepository.findByStudentIdAndCourseId(studentId, courseId)
@@ -102,4 +110,29 @@ public class LearningProgressService {
                 .map(id -> new LessonProgressDTO(id, completedIds.contains(id)))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Đánh dấu / bỏ đánh dấu các bước của bài học cho riêng sinh viên này (không đụng cờ is*Completed chung trên Lesson).
+     * Một câu upsert: step_mask = (step_mask | completed) & ~uncompleted.
+     */
+    @Transactional
+    public LessonStepProgressDTO updateLessonSteps(UUID studentId, UUID courseId, UUID lessonId, LessonStepUpdateRequest request) {
+        int setBits = LessonStep.maskOf(request.getCompleted());
+        int clearBits = LessonStep.maskOf(request.getUncompleted());
+
+        int affected = stepProgressRepository.applySteps(UuidV7Generator.generate().toString(), studentId.toString(),
+                courseId.toString(), lessonId.toString(), setBits, clearBits);
+        if (affected == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy bài học với ID: " + lessonId);
+        }
+
+        int mask = stepProgressRepository.findStepMask(studentId, lessonId).orElse(0);
+        return new LessonStepProgressDTO(lessonId, mask);
+    }
+
+    // ✅ Trạng thái các bước của mọi bài học trong khóa học (bài chưa có dòng nào = chưa làm bước nào)
+    @Transactional(readOnly = true)
+    public List<LessonStepProgressDTO> getCourseSteps(UUID studentId, UUID courseId) {
+        return stepProgressRepository.findCourseSteps(studentId, courseId);
+    }
 }
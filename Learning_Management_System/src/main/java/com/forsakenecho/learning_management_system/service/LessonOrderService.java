@@ -0,0 +1,152 @@
+package com.forsakenecho.learning_management_system.service;
+
+import com.forsakenecho.learning_management_system.repository.LessonRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Thứ tự bài học dựa trên sortKey có khoảng trống (GAP giữa hai bài liền kề).
+ * - Di chuyển một bài: lấy khóa ở giữa hai bài hàng xóm -> chỉ ghi 1 dòng.
+ * - Hết chỗ giữa hai bài (khoảng cách < 2) hoặc sắp xếp lại cả khóa học: đánh số lại toàn bộ
+ *   trong một câu UPDATE (LessonRepository.applyOrder), đồng thời đồng bộ lại lessonOrder hiển thị.
+ */
+@Service
+@RequiredArgsConstructor
+public class LessonOrderService {
+
+    public static final long GAP = 1024;
+
+    private final LessonRepository lessonRepository;
+
+    // ✅ sortKey cho bài học mới ở vị trí position (từ 1) của khóa học
+    public long sortKeyForNewLesson(UUID courseId, Integer position) {
+        return sortKeyForPosition(courseId, position, null);
+    }
+
+    /**
+     * sortKey để đặt bài học (movingLessonId, null nếu là bài mới) vào vị trí position (từ 1).
+     * position null hoặc lớn hơn số bài -> cuối khóa học.
+     */
+    public long sortKeyForPosition(UUID courseId, Integer position, UUID movingLessonId) {
+        List<UUID> ids = new ArrayList<>(lessonRepository.findOrderedLessonIds(courseId));
+        ids.remove(movingLessonId);
+
+        int index = position == null ? ids.size() : Math.max(0, Math.min(position - 1, ids.size()));
+        Long lower = index > 0 ? lessonRepository.findSortKey(ids.get(index - 1), courseId).orElse(null) : null;
+        Long upper = index < ids.size() ? lessonRepository.findSortKey(ids.get(index), courseId).orElse(null) : null;
+
+        Long key = between(lower, upper);
+        if (key == null) {
+            rebalance(courseId);
+            return sortKeyForPosition(courseId, position, movingLessonId);
+        }
+        return key;
+    }
+
+    /**
+     * Chuyển bài học tới ngay sau afterLessonId (null = lên đầu khóa học).
+     * Chỉ đọc khóa của 2 bài hàng xóm và ghi sort_key của 1 dòng.
+     */
+    public void moveLesson(UUID courseId, UUID lessonId, UUID afterLessonId) {
+        if (lessonId.equals(afterLessonId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Không thể đặt bài học sau chính nó.");
+        }
+        if (lessonRepository.findSortKey(lessonId, courseId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy bài học với ID: " + lessonId);
+        }
+
+        Long key = sortKeyAfter(courseId, lessonId, afterLessonId);
+        if (key == null) {
+            // Hết khoảng trống giữa hai bài hàng xóm: đánh số lại cả khóa học rồi tính lại (lúc này chắc chắn còn chỗ)
+            rebalance(courseId);
+            key = sortKeyAfter(courseId, lessonId, afterLessonId);
+        }
+        lessonRepository.updateSortKey(lessonId, courseId, key);
+    }
+
+    private Long sortKeyAfter(UUID courseId, UUID lessonId, UUID afterLessonId) {
+        Long lower = null;
+        Long upper;
+        if (afterLessonId != null) {
+            lower = lessonRepository.findSortKey(afterLessonId, courseId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy bài học với ID: " + afterLessonId));
+            upper = lessonRepository.findNextSortKey(courseId, lower, lessonId);
+        } else {
+            upper = lessonRepository.findMinSortKey(courseId, lessonId);
+        }
+        return between(lower, upper);
+    }
+
+    // Khóa nằm giữa lower và upper (null = không có hàng xóm phía đó); null nếu không còn chỗ
+    private static Long between(Long lower, Long upper) {
+        if (lower == null && upper == null) {
+            return GAP;
+        }
+        if (lower == null) {
+            return upper - GAP;
+        }
+        if (upper == null) {
+            return lower + GAP;
+        }
+        if (upper - lower < 2) {
+            return null;
+        }
+        return lower + (upper - lower) / 2;
+    }
+
+    /**
+     * Áp dụng thứ tự mới cho toàn bộ bài học của khóa học trong một câu UPDATE.
+     * Danh sách phải chứa đúng tất cả bài học của khóa học, mỗi bài một lần.
+     */
+    public void reorderLessons(UUID courseId, List<UUID> orderedLessonIds) {
+        List<UUID> currentIds = lessonRepository.findLessonIdsByCourseId(courseId);
+        if (orderedLessonIds.size() != currentIds.size()
+                || new HashSet<>(orderedLessonIds).size() != orderedLessonIds.size()
+                || !new HashSet<>(currentIds).containsAll(orderedLessonIds)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Danh sách phải gồm đúng tất cả " + currentIds.size() + " bài học của khóa học, không trùng lặp.");
+        }
+        applyOrder(courseId, orderedLessonIds);
+    }
+
+    // ✅ Đánh số lại sortKey = vị trí * GAP và lessonOrder = vị trí, giữ nguyên thứ tự hiện tại
+    public void rebalance(UUID courseId) {
+        applyOrder(courseId, lessonRepository.findOrderedLessonIds(courseId));
+    }
+
+    /**
+     * Rebalance các khóa học có khoảng trống quá nhỏ hoặc lessonOrder đã lệch sau các lần di chuyển.
+     *
+     * @return số khóa học đã rebalance
+     */
+    public int rebalanceAll(long minGap, int batchSize, int maxCourses) {
+        int total = 0;
+        while (total < maxCourses) {
+            List<String> courseIds = lessonRepository.findCourseIdsNeedingRebalance(minGap, Math.min(batchSize, maxCourses - total));
+            if (courseIds.isEmpty()) {
+                break;
+            }
+            courseIds.forEach(id -> rebalance(UUID.fromString(id)));
+            total += courseIds.size();
+        }
+        return total;
+    }
+
+    private void applyOrder(UUID courseId, List<UUID> orderedLessonIds) {
+        if (orderedLessonIds.isEmpty()) {
+            return;
+        }
+        String json = orderedLessonIds.stream()
+                .map(id -> "\"" + id + "\"")
+                .collect(Collectors.joining(",", "[", "]"));
+        lessonRepository.applyOrder(courseId.toString(), json, GAP);
+    }
+}
@@ -1,19 +1,30 @@
 package com.forsakenecho.learning_management_system.service;
 
+import com.forsakenecho.learning_management_system.cache.LessonSnapshotCache;
+import com.forsakenecho.learning_management_system.dto.LessonOutlineResponse;
+import com.forsakenecho.learning_management_system.dto.LessonPatchRequest;
 import com.forsakenecho.learning_management_system.dto.LessonRequest;
 import com.forsakenecho.learning_management_system.dto.LessonResponse;
 import com.forsakenecho.learning_management_system.entity.Course;
 import com.forsakenecho.learning_management_system.entity.Lesson;
+import com.forsakenecho.learning_management_system.quiz.QuizAnswerKey;
+import com.forsakenecho.learning_management_system.quiz.QuizAnswerKeyCache;
 import com.forsakenecho.learning_management_system.repository.CourseRepository;
 import com.forsakenecho.learning_management_system.repository.LessonRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator; // Import này cần nếu sắp xếp thủ công
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +32,10 @@ import java.util.stream.Collectors;
 public class LessonService {
     private final LessonRepository lessonRepository;
     private final CourseRepository courseRepository;
+    private final CourseStatsService courseStatsService;
+    private final LessonSnapshotCache lessonSnapshotCache;
+    private final LessonOrderService lessonOrderService;
+    private final QuizAnswerKeyCache quizAnswerKeyCache;
 
     // Helper method để map Lesson entity sang LessonResponse DTO
     private LessonResponse mapToLessonResponse(Lesson lesson) {
@@ -44,16 +59,65 @@ public class LessonService {
                 .isLessonCompleted(lesson.isLessonCompleted())
                 .courseId(lesson.getCourse() != null ? lesson.getCourse().getId() : null)
                 .lessonOrder(lesson.getLessonOrder()) // ✅ Ánh xạ lessonOrder
+                .updatedAt(lesson.getUpdatedAt())
+                .version(lesson.getVersion())
                 .build();
     }
 
+    @Transactional // ✅ bài học và course_stats cùng commit
     public LessonResponse createLesson(UUID courseId, LessonRequest lessonRequest) {
         // 1. Tìm khóa học mà bài học này thuộc về
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy khóa học với ID: " + courseId));
 
         // 2. Tạo đối tượng Lesson từ LessonRequest
-        Lesson lesson = Lesson.builder()
+        // ✅ sortKey nằm giữa hai bài hàng xóm ở vị trí yêu cầu (không đánh số lại các bài khác)
+        long sortKey = lessonOrderService.sortKeyForNewLesson(courseId, lessonRequest.getLessonOrder());
+        Lesson lesson = toLesson(course, lessonRequest, lessonRequest.getLessonOrder(), sortKey);
+
+        // 3. Lưu bài học vào cơ sở dữ liệu
+        Lesson savedLesson = lessonRepository.save(lesson);
+        courseStatsService.lessonAdded(courseId);
+        LessonResponse response = mapToLessonResponse(savedLesson);
+        lessonSnapshotCache.put(response, savedLesson.getUpdatedAt()); // ✅ dựng sẵn JSON + gzip
+        quizAnswerKeyCache.put(savedLesson.getId(), savedLesson.getVersion(), savedLesson.getAnswerKey());
+        return response;
+    }
+
+    /**
+     * Thêm nhiều bài học cho một khóa học trong transaction của caller.
+     * Id là UUIDv7 sinh trong bộ nhớ (không phải IDENTITY) nên Hibernate gom các INSERT thành batch
+     * (hibernate.jdbc.batch_size); thứ tự bài học lấy theo vị trí trong danh sách.
+     */
+    @Transactional
+    public List<LessonOutlineResponse> createLessons(Course course, List<LessonRequest> lessonRequests) {
+        for (LessonRequest request : lessonRequests) {
+            if (request == null || request.getTitle() == null || request.getTitle().isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tiêu đề bài học không được để trống");
+            }
+        }
+
+        Long maxSortKey = lessonRepository.findMaxSortKey(course.getId());
+        long baseSortKey = maxSortKey != null ? maxSortKey : 0;
+        List<Lesson> lessons = new ArrayList<>(lessonRequests.size());
+        for (int i = 0; i < lessonRequests.size(); i++) {
+            lessons.add(toLesson(course, lessonRequests.get(i), i + 1, baseSortKey + (i + 1) * LessonOrderService.GAP));
+        }
+        List<Lesson> savedLessons = lessonRepository.saveAll(lessons);
+        courseStatsService.lessonsAdded(course.getId(), savedLessons.size());
+
+        savedLessons.forEach(lesson -> {
+            lessonSnapshotCache.put(mapToLessonResponse(lesson), lesson.getUpdatedAt());
+            quizAnswerKeyCache.put(lesson.getId(), lesson.getVersion(), lesson.getAnswerKey());
+        });
+        return savedLessons.stream()
+                .map(lesson -> new LessonOutlineResponse(lesson.getId(), lesson.getTitle(), lesson.getLessonOrder(),
+                        lesson.getYoutubeVideoId(), lesson.isLessonCompleted()))
+                .toList();
+    }
+
+    private Lesson toLesson(Course course, LessonRequest lessonRequest, int lessonOrder, long sortKey) {
+        return Lesson.builder()
                 .title(lessonRequest.getTitle())
                 .youtubeVideoId(lessonRequest.getYoutubeVideoId())
                 .recallQuestion(lessonRequest.getRecallQuestion())
@@ -61,6 +125,7 @@ public class LessonService {
                 .shortAnswer(lessonRequest.getShortAnswer())
                 .multipleChoice(lessonRequest.getMultipleChoice())
                 .summaryTask(lessonRequest.getSummaryTask())
+                .answerKey(QuizAnswerKey.parse(lessonRequest.getMultipleChoice()).toBytes()) // ✅ parse đáp án một lần khi ghi
                 // Trạng thái hoàn thành mặc định là false khi tạo mới, không lấy từ request
                 .isRecallQuestionCompleted(false)
                 .isMaterialCompleted(false)
@@ -69,14 +134,9 @@ public class LessonService {
                 .isSummaryTaskCompleted(false)
                 .isLessonCompleted(false)
                 .course(course) // Gán khóa học cho bài học
-                .lessonOrder(lessonRequest.getLessonOrder()) // ✅ Gán lessonOrder từ request
+                .lessonOrder(lessonOrder) // ✅ Gán lessonOrder
+                .sortKey(sortKey)
                 .build();
-
-
-
-        // 3. Lưu bài học vào cơ sở dữ liệu
-        Lesson savedLesson = lessonRepository.save(lesson);
-        return mapToLessonResponse(savedLesson);
     }
 
     //  updateLesson
@@ -100,10 +160,17 @@ public class LessonService {
         existingLesson.setRecallQuestion(lessonRequest.getRecallQuestion());
         existingLesson.setMaterial(lessonRequest.getMaterial());
         existingLesson.setShortAnswer(lessonRequest.getShortAnswer());
-        existingLesson.setMultipleChoice(lessonRequest.getMultipleChoice());
+        if (!Objects.equals(existingLesson.getMultipleChoice(), lessonRequest.getMultipleChoice())
+                || existingLesson.getAnswerKey() == null) {
+            existingLesson.setMultipleChoice(lessonRequest.getMultipleChoice());
+            existingLesson.setAnswerKey(QuizAnswerKey.parse(lessonRequest.getMultipleChoice()).toBytes());
+        }
         existingLesson.setSummaryTask(lessonRequest.getSummaryTask());
 
-        // ✅ Cập nhật lessonOrder từ request
+        // ✅ Cập nhật lessonOrder từ request: đổi vị trí chỉ cần sortKey mới của chính bài này
+        if (lessonRequest.getLessonOrder() != null && lessonRequest.getLessonOrder() != existingLesson.getLessonOrder()) {
+            existingLesson.setSortKey(lessonOrderService.sortKeyForPosition(courseId, lessonRequest.getLessonOrder(), lessonId));
+        }
         existingLesson.setLessonOrder(lessonRequest.getLessonOrder());
 
         // ✅ Cập nhật các trường "isCompleted" từ request (nếu frontend có gửi)
@@ -118,8 +185,72 @@ public class LessonService {
 
 
         // 5. Lưu bài học đã cập nhật vào cơ sở dữ liệu
-        Lesson updatedLesson = lessonRepository.save(existingLesson);
-        return mapToLessonResponse(updatedLesson);
+        Lesson updatedLesson;
+        try {
+            updatedLesson = lessonRepository.save(existingLesson);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Bài học vừa được người khác cập nhật, vui lòng tải lại.");
+        }
+        LessonResponse response = mapToLessonResponse(updatedLesson);
+        lessonSnapshotCache.put(response, updatedLesson.getUpdatedAt()); // ✅ dựng sẵn JSON + gzip
+        quizAnswerKeyCache.put(updatedLesson.getId(), updatedLesson.getVersion(), updatedLesson.getAnswerKey());
+        return response;
+    }
+
+    /**
+     * Cập nhật một phần bài học: chỉ gán các trường có trong request và khác giá trị cũ.
+     * Lesson dùng @DynamicUpdate nên câu UPDATE chỉ chứa các cột đó (sửa tiêu đề không ghi lại nội dung nén);
+     * không có gì thay đổi thì không có UPDATE nào.
+     * version lệch (client đang sửa bản cũ) hoặc bị ghi đồng thời -> 409.
+     */
+    @Transactional
+    public LessonResponse patchLesson(UUID courseId, UUID lessonId, LessonPatchRequest patch) {
+        Lesson lesson = lessonRepository.findByIdAndCourseId(lessonId, courseId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy bài học với ID: " + lessonId));
+
+        if (!Objects.equals(lesson.getVersion(), patch.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Bài học đã được cập nhật ở phiên bản " + lesson.getVersion() + ", vui lòng tải lại.");
+        }
+
+        setIfChanged(patch.getTitle(), lesson.getTitle(), lesson::setTitle);
+        setIfChanged(patch.getYoutubeVideoId(), lesson.getYoutubeVideoId(), lesson::setYoutubeVideoId);
+        if (patch.getLessonOrder() != null && patch.getLessonOrder() != lesson.getLessonOrder()) {
+            lesson.setSortKey(lessonOrderService.sortKeyForPosition(courseId, patch.getLessonOrder(), lessonId));
+            lesson.setLessonOrder(patch.getLessonOrder());
+        }
+        setIfChanged(patch.getRecallQuestion(), lesson.getRecallQuestion(), lesson::setRecallQuestion);
+        setIfChanged(patch.getMaterial(), lesson.getMaterial(), lesson::setMaterial);
+        setIfChanged(patch.getShortAnswer(), lesson.getShortAnswer(), lesson::setShortAnswer);
+        if (patch.getMultipleChoice() != null && !patch.getMultipleChoice().equals(lesson.getMultipleChoice())) {
+            lesson.setMultipleChoice(patch.getMultipleChoice());
+            lesson.setAnswerKey(QuizAnswerKey.parse(patch.getMultipleChoice()).toBytes());
+        }
+        setIfChanged(patch.getSummaryTask(), lesson.getSummaryTask(), lesson::setSummaryTask);
+        setIfChanged(patch.getRecallQuestionCompleted(), lesson.isRecallQuestionCompleted(), lesson::setRecallQuestionCompleted);
+        setIfChanged(patch.getMaterialCompleted(), lesson.isMaterialCompleted(), lesson::setMaterialCompleted);
+        setIfChanged(patch.getShortAnswerCompleted(), lesson.isShortAnswerCompleted(), lesson::setShortAnswerCompleted);
+        setIfChanged(patch.getMultipleChoiceCompleted(), lesson.isMultipleChoiceCompleted(), lesson::setMultipleChoiceCompleted);
+        setIfChanged(patch.getSummaryTaskCompleted(), lesson.isSummaryTaskCompleted(), lesson::setSummaryTaskCompleted);
+        setIfChanged(patch.getLessonCompleted(), lesson.isLessonCompleted(), lesson::setLessonCompleted);
+
+        try {
+            // flush ngay để lỗi version (ghi đồng thời sau bước kiểm tra trên) thành 409 tại đây, không phải lúc commit
+            lessonRepository.saveAndFlush(lesson);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Bài học vừa được người khác cập nhật, vui lòng tải lại.");
+        }
+
+        LessonResponse response = mapToLessonResponse(lesson);
+        lessonSnapshotCache.put(response, lesson.getUpdatedAt()); // ✅ dựng sẵn JSON + gzip
+        quizAnswerKeyCache.put(lesson.getId(), lesson.getVersion(), lesson.getAnswerKey());
+        return response;
+    }
+
+    // null = client không gửi trường đó; bằng giá trị cũ thì không gán để Hibernate không coi là thay đổi
+    private static <T> void setIfChanged(T newValue, T currentValue, Consumer<T> setter) {
+        if (newValue != null && !newValue.equals(currentValue)) {
+            setter.accept(newValue);
+        }
     }
 
     //  getLessonsByCourseId
@@ -127,16 +258,52 @@ public class LessonService {
         courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy khóa học với ID: " + courseId));
 
-        // ✅ Lấy danh sách bài học đã được sắp xếp theo lessonOrder
-        List<Lesson> lessons = lessonRepository.findByCourseIdOrderByLessonOrderAsc(courseId);
+        // ✅ Lấy danh sách bài học đã được sắp xếp theo sortKey
+        List<Lesson> lessons = lessonRepository.findByCourseIdOrderBySortKeyAscLessonOrderAsc(courseId);
 
         // Chuyển đổi danh sách Lesson entities sang danh sách LessonResponse DTOs
-        return lessons.stream()
+        // lessonOrder lấy theo vị trí thực (cột lesson_order chỉ được đồng bộ lại khi rebalance)
+        List<LessonResponse> responses = lessons.stream()
                 .map(this::mapToLessonResponse)
                 .collect(Collectors.toList());
+        for (int i = 0; i < responses.size(); i++) {
+            responses.get(i).setLessonOrder(i + 1);
+        }
+        return responses;
+    }
+
+    // ✅ Mục lục bài học (id, tiêu đề, thứ tự, video): không load nội dung, dùng cho sidebar
+    public List<LessonOutlineResponse> getLessonOutline(UUID courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy khóa học với ID: " + courseId);
+        }
+        List<LessonOutlineResponse> outline = lessonRepository.findOutlineByCourseId(courseId);
+        for (int i = 0; i < outline.size(); i++) {
+            outline.get(i).setLessonOrder(i + 1); // vị trí thực theo sortKey
+        }
+        return outline;
+    }
+
+    // ✅ Nội dung đầy đủ của một bài học, client gọi khi mở bài học đó
+    public LessonResponse getLessonInCourse(UUID courseId, UUID lessonId) {
+        Lesson lesson = lessonRepository.findByIdAndCourseId(lessonId, courseId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy bài học với ID: " + lessonId));
+        return mapToLessonResponse(lesson);
+    }
+
+    // updatedAt hiện tại của bài học (404 nếu không thuộc khóa học), dùng để so ETag trước khi load nội dung
+    public LocalDateTime getLessonUpdatedAt(UUID courseId, UUID lessonId) {
+        return lessonRepository.findUpdatedAt(lessonId, courseId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy bài học với ID: " + lessonId));
+    }
+
+    // ✅ Nội dung bài học dạng byte đã serialize (JSON + gzip), chỉ load entity khi snapshot chưa có / đã cũ
+    public LessonSnapshotCache.LessonSnapshot getLessonSnapshot(UUID courseId, UUID lessonId, LocalDateTime updatedAt) {
+        return lessonSnapshotCache.get(lessonId, updatedAt, () -> getLessonInCourse(courseId, lessonId));
     }
 
     //  delete Lesson
+    @Transactional
     public void deleteLesson(UUID courseId, UUID lessonId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy khóa học với ID: " + courseId));
@@ -149,12 +316,19 @@ public class LessonService {
         }
 
         lessonRepository.delete(existingLesson);
+        courseStatsService.lessonRemoved(courseId);
+        lessonSnapshotCache.evict(lessonId);
+        quizAnswerKeyCache.evict(lessonId);
     }
 
     // Phương thức lấy một bài học theo ID (có thể cần cho trang chi tiết bài học)
     public LessonResponse getLessonById(UUID lessonId) {
         Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy bài học với ID: " + lessonId));
-        return mapToLessonResponse(lesson);
+        LessonResponse response = mapToLessonResponse(lesson);
+        // Vị trí thực theo sortKey (cột lesson_order chỉ được đồng bộ lại khi rebalance)
+        response.setLessonOrder((int) lessonRepository.countLessonsBefore(lesson.getCourse().getId(),
+                lesson.getSortKey(), lesson.getLessonOrder(), lesson.getId()) + 1);
+        return response;
     }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.forsakenecho.learning_management_system.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chạy xác thực mật khẩu (BCrypt) trên một pool riêng, giới hạn kích thước và hàng đợi,
+ * để đợt đăng nhập dồn dập không chiếm hết thread của Tomcat.
+ * Khi pool đầy, request bị từ chối ngay (RejectedExecutionException) thay vì xếp hàng vô hạn.
+ */
+@Service
+public class PasswordVerificationService {
+
+    private final AuthenticationManager authenticationManager;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Timer hashTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordVerificationService(AuthenticationManager authenticationManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${auth.password-pool.size:4}") int poolSize,
+                                       @Value("${auth.password-pool.queue-capacity:100}") int queueCapacity,
+                                       @Value("${auth.password-pool.timeout-ms:5000}") long timeoutMs) {
+        this.authenticationManager = authenticationManager;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("auth.password.hash.latency")
+                .description("Thời gian xác thực mật khẩu (BCrypt) trên pool riêng")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.rejected")
+                .description("Số lần đăng nhập bị từ chối vì pool xác thực đã đầy")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+                .description("Số yêu cầu đăng nhập đang chờ trong hàng đợi")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Xác thực email/mật khẩu trên pool riêng, không chặn thread gọi (thread Tomcat được trả lại ngay).
+     * Future hoàn thành với lỗi:
+     * - RejectedExecutionException nếu pool và hàng đợi đều đầy
+     * - TimeoutException nếu chờ quá auth.password-pool.timeout-ms
+     * - ngoại lệ gốc của AuthenticationManager (BadCredentialsException, ...) như khi gọi trực tiếp
+     */
+    public CompletableFuture<Authentication> authenticate(String email, String password) {
+        CompletableFuture<Authentication> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (result.isDone()) {
+                    return; // đã hết thời gian chờ trong hàng đợi, bỏ qua không hash nữa
+                }
+                try {
+                    result.complete(hashTimer.record(() -> authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(email, password))));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((auth, e) -> {
+                    if (e instanceof TimeoutException) {
+                        rejectedCounter.increment();
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
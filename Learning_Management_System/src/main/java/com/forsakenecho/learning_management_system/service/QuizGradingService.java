@@ -0,0 +1,105 @@
+package com.forsakenecho.learning_management_system.service;
+
+import com.forsakenecho.learning_management_system.dto.QuizGradeRequest;
+import com.forsakenecho.learning_management_system.dto.QuizGradeResponse;
+import com.forsakenecho.learning_management_system.entity.QuizAttempt;
+import com.forsakenecho.learning_management_system.entity.User;
+import com.forsakenecho.learning_management_system.quiz.QuizAnswerKey;
+import com.forsakenecho.learning_management_system.quiz.QuizAnswerKeyCache;
+import com.forsakenecho.learning_management_system.quiz.QuizAttemptWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class QuizGradingService {
+
+    private final QuizAnswerKeyCache quizAnswerKeyCache;
+    private final QuizAttemptWriter quizAttemptWriter;
+
+    /**
+     * Chấm tất cả câu trả lời trong bộ nhớ bằng đáp án đã parse sẵn (không đọc lại JSON multipleChoice),
+     * rồi đưa các lượt trả lời vào hàng đợi để ghi theo lô.
+     */
+    public QuizGradeResponse grade(UUID courseId, User student, QuizGradeRequest request) {
+        List<QuizGradeRequest.Answer> answers = request.getAnswers();
+        Set<UUID> lessonIds = new LinkedHashSet<>();
+        answers.forEach(a -> lessonIds.add(a.getLessonId()));
+
+        Map<UUID, QuizAnswerKey> keys = quizAnswerKeyCache.getAll(courseId, lessonIds);
+        for (UUID lessonId : lessonIds) {
+            if (!keys.containsKey(lessonId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Không tìm thấy bài học với ID: " + lessonId);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<QuizGradeResponse.AnswerResult> results = new ArrayList<>(answers.size());
+        List<QuizAttempt> attempts = new ArrayList<>(answers.size());
+        Map<UUID, int[]> scores = new LinkedHashMap<>(); // lessonId -> [đúng, đã chấm]
+        int correctCount = 0;
+        int gradedCount = 0;
+
+        for (QuizGradeRequest.Answer answer : answers) {
+            QuizAnswerKey key = keys.get(answer.getLessonId());
+            int questionIndex = answer.getQuestionIndex();
+            if (questionIndex >= key.questionCount()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Bài học " + answer.getLessonId() + " không có câu hỏi số " + questionIndex);
+            }
+
+            int[] score = scores.computeIfAbsent(answer.getLessonId(), id -> new int[2]);
+            int correctOption = key.correctOption(questionIndex);
+            if (correctOption == QuizAnswerKey.UNKNOWN) {
+                // Câu hỏi không có đáp án hợp lệ: không chấm, không ghi lượt trả lời
+                results.add(new QuizGradeResponse.AnswerResult(answer.getLessonId(), questionIndex,
+                        answer.getSelectedOption(), null, null));
+                continue;
+            }
+
+            boolean correct = answer.getSelectedOption() == correctOption;
+            results.add(new QuizGradeResponse.AnswerResult(answer.getLessonId(), questionIndex,
+                    answer.getSelectedOption(), correct, correctOption));
+            attempts.add(QuizAttempt.builder()
+                    .studentId(student.getId())
+                    .courseId(courseId)
+                    .lessonId(answer.getLessonId())
+                    .questionIndex(questionIndex)
+                    .selectedOption(answer.getSelectedOption())
+                    .correct(correct)
+                    .attemptedAt(now)
+                    .build());
+
+            gradedCount++;
+            score[1]++;
+            if (correct) {
+                correctCount++;
+                score[0]++;
+            }
+        }
+
+        quizAttemptWriter.enqueue(attempts);
+
+        List<QuizGradeResponse.LessonScore> lessonScores = new ArrayList<>(scores.size());
+        scores.forEach((lessonId, score) -> lessonScores.add(new QuizGradeResponse.LessonScore(
+                lessonId, score[0], score[1], keys.get(lessonId).questionCount())));
+
+        return QuizGradeResponse.builder()
+                .results(results)
+                .lessons(lessonScores)
+                .correctCount(correctCount)
+                .gradedCount(gradedCount)
+                .build();
+    }
+}
@@ -1,7 +1,9 @@
 package com.forsakenecho.learning_management_system.service;
 
+import com.forsakenecho.learning_management_system.cache.PublicResponseCache;
 import com.forsakenecho.learning_management_system.dto.RatingDto;
 import com.forsakenecho.learning_management_system.entity.Course;
+import com.forsakenecho.learning_management_system.entity.CourseStats;
 import com.forsakenecho.learning_management_system.entity.Rating;
 import com.forsakenecho.learning_management_system.entity.User;
 import com.forsakenecho.learning_management_system.enums.CourseAccessType;
@@ -10,6 +12,7 @@ import com.forsakenecho.learning_management_system.repository.CourseRepository;
 import com.forsakenecho.learning_management_system.repository.RatingRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -21,7 +24,10 @@ public class RatingService {
     private final RatingRepository ratingRepository;
     private final CourseRepository courseRepository;
     private final CourseManagementRepository courseManagementRepository;
+    private final PublicResponseCache publicResponseCache;
+    private final CourseStatsService courseStatsService;
 
+    @Transactional // ✅ rating và course_stats cùng commit
     public RatingDto addOrUpdateRating(UUID courseId, int score, User user) {
         if (score < 1 || score > 5) {
             throw new IllegalArgumentException("Điểm đánh giá phải từ 1 đến 5");
@@ -39,27 +45,34 @@ public class RatingService {
         }
 
         // ✅ Nếu đã đánh giá → cập nhật
-        Rating rating = ratingRepository.findByCourse_IdAndStudent_Id(courseId, user.getId())
-                .map(existing -> {
-                    existing.setValue(score);
-                    return existing;
-                })
-                .orElseGet(() -> Rating.builder()
-                        .student(user)
-                        .course(course)
-                        .value(score)
-                        .build()
-                );
+        Rating existing = ratingRepository.findByCourse_IdAndStudent_Id(courseId, user.getId()).orElse(null);
+        Rating rating;
+        if (existing != null) {
+            int oldValue = existing.getValue();
+            existing.setValue(score);
+            rating = ratingRepository.save(existing);
+            courseStatsService.ratingChanged(courseId, oldValue, score);
+        } else {
+            rating = ratingRepository.save(Rating.builder()
+                    .student(user)
+                    .course(course)
+                    .value(score)
+                    .build());
+            courseStatsService.ratingAdded(courseId, score);
+        }
 
-        return RatingDto.from(ratingRepository.save(rating));
+        RatingDto saved = RatingDto.from(rating);
+        publicResponseCache.evictCourse(courseId); // ✅ điểm trung bình đã đổi
+        return saved;
     }
 
 
 
+    // ✅ Đọc từ course_stats (một dòng theo khóa chính), không load toàn bộ Rating
     public Double getAverageRating(UUID courseId) {
-        List<Rating> ratings = ratingRepository.findByCourse_Id(courseId);
-        if (ratings.isEmpty()) return null;
-        return ratings.stream().mapToInt(Rating::getValue).average().orElse(0.0);
+        return courseStatsService.getStats(courseId)
+                .map(CourseStats::getRatingAverage)
+                .orElseGet(() -> ratingRepository.getAverageRating(courseId)); // chưa có dòng thống kê
     }
 
     public RatingDto getUserRating(UUID courseId, UUID userId) {
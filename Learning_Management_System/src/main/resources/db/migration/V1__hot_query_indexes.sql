@@ -0,0 +1,66 @@
+-- Index cho các query nóng (derived query của repository).
+-- Bảng do Hibernate tạo nên index có thể đã tồn tại trên vài môi trường:
+-- mỗi index chỉ được tạo khi information_schema chưa có tên đó.
+-- Đã có sẵn, không tạo lại:
+--   course_management(user_id, access_type)  -> idx_cm_user_access_course (user_id, access_type, course_id)
+--   learning_progress(student_id)            -> unique (student_id, course_id)
+
+-- CourseManagementRepository.findByCourseIdAndAccessType / findBuyersByCourseId
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'course_management'
+                 AND index_name = 'idx_cm_course_access') = 0,
+              'CREATE INDEX idx_cm_course_access ON course_management (course_id, access_type)',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- NotificationRepository.findByRecipientEmailOrderByCreatedAtDesc / findByRecipientEmailAndIsReadFalse
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'notifications'
+                 AND index_name = 'idx_notifications_recipient_read_created') = 0,
+              'CREATE INDEX idx_notifications_recipient_read_created ON notifications (recipient_email, is_read, created_at)',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- CommentRepository.findByCourseIdOrderByCreatedAtAsc
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'comment'
+                 AND index_name = 'idx_comment_course_created') = 0,
+              'CREATE INDEX idx_comment_course_created ON comment (course_id, created_at)',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- LessonRepository.findByCourseIdOrderByLessonOrderAsc / countByCourseId
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'lesson'
+                 AND index_name = 'idx_lesson_course_order') = 0,
+              'CREATE INDEX idx_lesson_course_order ON lesson (course_id, lesson_order)',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- UserRepository.findByEmail / existsByEmail (JwtFilter, đăng nhập, đăng ký)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'users'
+                 AND index_name = 'idx_users_email') = 0,
+              'CREATE INDEX idx_users_email ON users (email)',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- RatingRepository.findByCourse_IdAndStudent_Id / findByCourse_Id / getAverageRating
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'rating'
+                 AND index_name = 'idx_rating_course_student') = 0,
+              'CREATE INDEX idx_rating_course_student ON rating (course_id, student_id)',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
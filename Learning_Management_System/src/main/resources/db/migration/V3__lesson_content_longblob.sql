@@ -0,0 +1,8 @@
+-- Nội dung bài học được lưu nén (CompressedTextConverter) nên cột phải là nhị phân.
+-- LONGTEXT -> LONGBLOB giữ nguyên byte UTF-8 của các dòng cũ; converter vẫn đọc chúng như văn bản thường.
+ALTER TABLE lesson
+    MODIFY recall_question LONGBLOB,
+    MODIFY material LONGBLOB,
+    MODIFY short_answer LONGBLOB,
+    MODIFY multiple_choice LONGBLOB,
+    MODIFY summary_task LONGBLOB;
@@ -0,0 +1,13 @@
+-- Cột version cho khóa lạc quan (@Version trên Lesson).
+-- ddl-auto có thể đã thêm cột trước khi Flyway chạy: chỉ thêm khi chưa có, rồi chuẩn hóa về NOT NULL DEFAULT 0.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'lesson'
+                 AND column_name = 'version') = 0,
+              'ALTER TABLE lesson ADD COLUMN version BIGINT NOT NULL DEFAULT 0',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+UPDATE lesson SET version = 0 WHERE version IS NULL;
+ALTER TABLE lesson MODIFY version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,28 @@
+-- Thứ tự bài học dạng khóa có khoảng trống: sort_key = vị trí * 1024 (LessonOrderService.GAP).
+-- ddl-auto có thể đã thêm cột (giá trị 0) trước khi Flyway chạy: chỉ thêm khi chưa có.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'lesson'
+                 AND column_name = 'sort_key') = 0,
+              'ALTER TABLE lesson ADD COLUMN sort_key BIGINT NOT NULL DEFAULT 0',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Khởi tạo theo thứ tự cũ (lesson_order); bài trùng thứ tự thì xếp theo thời điểm tạo
+UPDATE lesson l
+JOIN (SELECT id,
+             ROW_NUMBER() OVER (PARTITION BY course_id ORDER BY lesson_order, created_at, id) AS pos
+      FROM lesson) o ON l.id = o.id
+SET l.sort_key = o.pos * 1024,
+    l.lesson_order = o.pos;
+
+-- LessonRepository: ORDER BY sort_key trong một khóa học, tìm hàng xóm khi di chuyển
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'lesson'
+                 AND index_name = 'idx_lesson_course_sort') = 0,
+              'CREATE INDEX idx_lesson_course_sort ON lesson (course_id, sort_key)',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,103 @@
+package com.forsakenecho.learning_management_system.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedTextConverterTests {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    void roundTripsCompressedContent() {
+        String material = sampleLesson(new Random(1));
+        byte[] stored = converter.convertToDatabaseColumn(material);
+
+        assertThat(stored[0]).isEqualTo(CompressedTextConverter.MARKER);
+        assertThat(stored[1]).isEqualTo(CompressedTextConverter.FORMAT_DEFLATE_V1);
+        assertThat(stored.length).isLessThan(material.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(material);
+    }
+
+    @Test
+    void readsLegacyPlainRows() {
+        String legacy = "## Bài 1: Giới thiệu\n\nNội dung cũ lưu nguyên văn trong LONGTEXT.";
+        assertThat(converter.convertToEntityAttribute(legacy.getBytes(StandardCharsets.UTF_8))).isEqualTo(legacy);
+    }
+
+    @Test
+    void storesShortTextUncompressed() {
+        String shortText = "Câu hỏi ngắn?";
+        assertThat(converter.convertToDatabaseColumn(shortText)).isEqualTo(shortText.getBytes(StandardCharsets.UTF_8));
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    // Tỉ lệ nén và chi phí CPU trên một tập bài học mẫu (markdown tiếng Việt), in ra để so sánh
+    @Test
+    void reportsCompressionRatioAndCpuCost() {
+        Random random = new Random(42);
+        List<String> corpus = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            corpus.add(sampleLesson(random));
+        }
+
+        long plainBytes = 0;
+        long storedBytes = 0;
+        List<byte[]> stored = new ArrayList<>();
+        long compressStart = System.nanoTime();
+        for (String lesson : corpus) {
+            byte[] data = converter.convertToDatabaseColumn(lesson);
+            stored.add(data);
+            plainBytes += lesson.getBytes(StandardCharsets.UTF_8).length;
+            storedBytes += data.length;
+        }
+        long compressNanos = System.nanoTime() - compressStart;
+
+        long decompressStart = System.nanoTime();
+        for (int i = 0; i < stored.size(); i++) {
+            assertThat(converter.convertToEntityAttribute(stored.get(i))).isEqualTo(corpus.get(i));
+        }
+        long decompressNanos = System.nanoTime() - decompressStart;
+
+        System.out.printf("Lesson content: %d KB -> %d KB (ratio %.2fx), compress %.1f us/lesson (%.0f MB/s), "
+                        + "decompress %.1f us/lesson (%.0f MB/s)%n",
+                plainBytes / 1024, storedBytes / 1024, (double) plainBytes / storedBytes,
+                compressNanos / 1e3 / corpus.size(), plainBytes / (compressNanos / 1e9) / 1e6,
+                decompressNanos / 1e3 / corpus.size(), plainBytes / (decompressNanos / 1e9) / 1e6);
+        assertThat(storedBytes).isLessThan(plainBytes);
+    }
+
+    // Bài học giả lập giống nội dung AI sinh: tiêu đề, đoạn văn, danh sách, câu hỏi trắc nghiệm
+    private static String sampleLesson(Random random) {
+        String[] topics = {"biến và kiểu dữ liệu", "vòng lặp for", "hàm đệ quy", "lập trình hướng đối tượng",
+                "cấu trúc dữ liệu mảng", "xử lý ngoại lệ", "cơ sở dữ liệu quan hệ", "giao thức HTTP"};
+        String[] sentences = {
+                "Trong bài học này, chúng ta sẽ tìm hiểu khái niệm %s và cách áp dụng vào thực tế.",
+                "Hãy ghi nhớ rằng %s là nền tảng quan trọng để học các phần nâng cao hơn.",
+                "Ví dụ dưới đây minh họa cách sử dụng %s trong một chương trình đơn giản.",
+                "Sinh viên cần luyện tập thường xuyên với %s để nắm vững kiến thức.",
+                "Một lỗi thường gặp khi làm việc với %s là quên kiểm tra điều kiện biên."};
+        String topic = topics[random.nextInt(topics.length)];
+        StringBuilder sb = new StringBuilder("# Bài học: ").append(topic).append("\n\n");
+        for (int section = 1; section <= 4 + random.nextInt(4); section++) {
+            sb.append("## Phần ").append(section).append("\n\n");
+            for (int i = 0; i < 3 + random.nextInt(5); i++) {
+                sb.append(String.format(sentences[random.nextInt(sentences.length)], topic)).append(' ');
+            }
+            sb.append("\n\n- Ý chính ").append(random.nextInt(100)).append(": ").append(topic)
+                    .append("\n- Bài tập số ").append(random.nextInt(1000)).append("\n\n");
+        }
+        for (int q = 1; q <= 5; q++) {
+            sb.append("**Câu ").append(q).append(":** Phát biểu nào sau đây đúng về ").append(topic).append("?\n")
+                    .append("A. Đáp án ").append(random.nextInt(50)).append("\nB. Đáp án ").append(random.nextInt(50))
+                    .append("\nC. Đáp án ").append(random.nextInt(50)).append("\nD. Tất cả đều đúng\n\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,148 @@
+package com.forsakenecho.learning_management_system.jwt;
+
+import com.forsakenecho.learning_management_system.entity.User;
+import com.forsakenecho.learning_management_system.enums.Role;
+import com.forsakenecho.learning_management_system.enums.Status;
+import com.forsakenecho.learning_management_system.repository.BlacklistedTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Đo thời gian JwtFilter xử lý một request có Bearer token: parse HS512 + SHA-256 mỗi request (trước)
+ * so với VerifiedTokenCache (sau), ở tỉ lệ trúng cache 0%, 50%, 90%, 99%.
+ * Không cần DB: user và danh sách token thu hồi nằm trong bộ nhớ.
+ * Chỉ chạy khi bật: mvn test -Dtest=JwtFilterBenchmarkTests -Dbenchmark=true [-Dbenchmark.requests=200000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtFilterBenchmarkTests {
+
+    private static final int HOT_TOKENS = 1000;
+    private static final double[] HIT_RATES = {0.0, 0.5, 0.9, 0.99};
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final Map<String, User> users = new HashMap<>();
+    private final UserDetailsService userDetailsService = username -> {
+        User user = users.get(username);
+        if (user == null) {
+            throw new UsernameNotFoundException(username);
+        }
+        return user;
+    };
+
+    @Test
+    void verifiedTokenCacheHitRates() throws Exception {
+        int requests = Integer.getInteger("benchmark.requests", 200_000);
+
+        // Token khác nhau theo user (iat tính theo giây nên cùng user trong 1 giây sẽ ra cùng token)
+        List<String> hotTokens = issueTokens("hot", HOT_TOKENS);
+
+        TokenRevocationCache revocationCache = new TokenRevocationCache(
+                Mockito.mock(BlacklistedTokenRepository.class), 100_000, 60_000);
+        revocationCache.rebuild(); // danh sách rỗng, isRevoked không còn hỏi DB
+
+        // Trước: mỗi request parse + kiểm tra chữ ký + băm lại token
+        VerifiedTokenCache noCache = new VerifiedTokenCache(jwtUtil, 1) {
+            @Override
+            public ParsedToken verify(String token) {
+                return jwtUtil.parse(token);
+            }
+        };
+        JwtFilter before = filter(noCache, revocationCache);
+        JwtFilter after = filter(new VerifiedTokenCache(jwtUtil, 1_000_000), revocationCache);
+
+        // Warm-up JIT và nạp sẵn các token "nóng" vào cache
+        for (String token : hotTokens) {
+            run(before, token);
+            run(after, token);
+        }
+
+        double lastSpeedup = 0;
+        for (double hitRate : HIT_RATES) {
+            // Token "lạnh" mới cho mỗi vòng: VerifiedTokenCache chưa từng thấy nên luôn trượt cache
+            List<String> workload = workload(hotTokens, "cold" + (int) (hitRate * 100) + "-", hitRate, requests);
+
+            double beforeUs = measure(before, workload);
+            double afterUs = measure(after, workload);
+            lastSpeedup = beforeUs / afterUs;
+            System.out.printf("hit rate %3.0f%%: no cache %.2f us/request, VerifiedTokenCache %.2f us/request (x%.1f)%n",
+                    hitRate * 100, beforeUs, afterUs, lastSpeedup);
+        }
+
+        assertThat(lastSpeedup > 1).isTrue();
+    }
+
+    private JwtFilter filter(VerifiedTokenCache verifiedTokenCache, TokenRevocationCache revocationCache) {
+        JwtFilter filter = new JwtFilter(jwtUtil, verifiedTokenCache, userDetailsService, revocationCache);
+        ReflectionTestUtils.setField(filter, "userEpochEnabled", true);
+        return filter;
+    }
+
+    private List<String> issueTokens(String prefix, int count) {
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = User.builder()
+                    .name(prefix + i)
+                    .email(prefix + i + "@example.com")
+                    .password("x")
+                    .role(Role.STUDENT)
+                    .status(Status.ACTIVE)
+                    .balance(BigDecimal.ZERO)
+                    .build();
+            users.put(user.getUsername(), user);
+            tokens.add(jwtUtil.generateToken(user));
+        }
+        return tokens;
+    }
+
+    // hitRate phần request dùng token nóng (đã có trong cache), phần còn lại dùng token lạnh chưa gặp
+    private List<String> workload(List<String> hot, String coldPrefix, double hitRate, int requests) {
+        Random random = new Random(42);
+        boolean[] isHot = new boolean[requests];
+        int coldCount = 0;
+        for (int i = 0; i < requests; i++) {
+            isHot[i] = random.nextDouble() < hitRate;
+            coldCount += isHot[i] ? 0 : 1;
+        }
+        List<String> cold = issueTokens(coldPrefix, coldCount);
+
+        List<String> tokens = new ArrayList<>(requests);
+        int coldIndex = 0;
+        for (int i = 0; i < requests; i++) {
+            tokens.add(isHot[i] ? hot.get(random.nextInt(hot.size())) : cold.get(coldIndex++));
+        }
+        return tokens;
+    }
+
+    private double measure(JwtFilter filter, List<String> tokens) throws Exception {
+        long start = System.nanoTime();
+        for (String token : tokens) {
+            run(filter, token);
+        }
+        return (System.nanoTime() - start) / 1e3 / tokens.size();
+    }
+
+    private void run(JwtFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/student/courses");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+        });
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,49 @@
+package com.forsakenecho.learning_management_system.quiz;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuizAnswerKeyTests {
+
+    @Test
+    void resolvesLetterAndVerbatimAnswers() {
+        QuizAnswerKey key = QuizAnswerKey.parse("""
+                [{"question":"Q1","options":["A. Tạo nội dung sai","B. Không tạo được nội dung","C. Cả A và B","D. Không có gì"],"correctAnswer":"B"},
+                 {"question":"Q2","options":["X","Y","Z","W"],"correctAnswer":"Z"},
+                 {"question":"Q3","options":["1","2","3","4"],"correctAnswer":"d)"}]
+                """);
+
+        assertThat(key.questionCount()).isEqualTo(3);
+        assertThat(key.correctOption(0)).isEqualTo(1);
+        assertThat(key.correctOption(1)).isEqualTo(2);
+        assertThat(key.correctOption(2)).isEqualTo(3);
+        assertThat(key.correctOption(3)).isEqualTo(QuizAnswerKey.UNKNOWN);
+    }
+
+    @Test
+    void acceptsSingleQuotedJsonFromPromptExample() {
+        QuizAnswerKey key = QuizAnswerKey.parse("[{'question': 'Câu hỏi 1?', 'options': ['A','B','C','D'], 'correctAnswer': 'A'}]");
+        assertThat(key.correctOption(0)).isEqualTo(0);
+    }
+
+    @Test
+    void marksUnresolvableQuestionsAndBrokenJson() {
+        QuizAnswerKey key = QuizAnswerKey.parse("[{\"question\":\"Q\",\"options\":[\"A\",\"B\"],\"correctAnswer\":\"E\"},{\"question\":\"Q\"}]");
+        assertThat(key.questionCount()).isEqualTo(2);
+        assertThat(key.correctOption(0)).isEqualTo(QuizAnswerKey.UNKNOWN);
+        assertThat(key.correctOption(1)).isEqualTo(QuizAnswerKey.UNKNOWN);
+
+        assertThat(QuizAnswerKey.parse("không phải JSON")).isEqualTo(QuizAnswerKey.EMPTY);
+        assertThat(QuizAnswerKey.parse(null)).isEqualTo(QuizAnswerKey.EMPTY);
+    }
+
+    @Test
+    void roundTripsThroughCompactBytes() {
+        QuizAnswerKey key = QuizAnswerKey.parse("[{\"options\":[\"A\",\"B\",\"C\"],\"correctAnswer\":\"C\"}]");
+        byte[] stored = key.toBytes();
+
+        assertThat(stored).containsExactly(2);
+        assertThat(QuizAnswerKey.fromBytes(stored)).isEqualTo(key);
+    }
+}
@@ -0,0 +1,68 @@
+package com.forsakenecho.learning_management_system.quiz;
+
+import com.forsakenecho.learning_management_system.entity.QuizAttempt;
+import com.forsakenecho.learning_management_system.repository.QuizAttemptRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuizAttemptWriterTests {
+
+    private static final int BAD_QUESTION = 2;
+
+    private final QuizAttemptRepository repository = Mockito.mock(QuizAttemptRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<QuizAttempt> saved = new ArrayList<>();
+
+    @Test
+    void failedBatchKeepsEveryRowExceptTheBadOne() {
+        // Giống Hibernate: persist gán id cho cả lô rồi mới lỗi, rollback không xóa id
+        Mockito.when(repository.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<QuizAttempt> batch = invocation.getArgument(0);
+            batch.forEach(a -> a.setId(UUID.randomUUID()));
+            throw new DataIntegrityViolationException("batch insert failed");
+        });
+        Mockito.when(repository.save(Mockito.any(QuizAttempt.class))).thenAnswer(invocation -> {
+            QuizAttempt attempt = invocation.getArgument(0);
+            if (attempt.getId() != null) {
+                // save() với id có sẵn -> merge -> không thấy dòng trong DB
+                throw new ObjectOptimisticLockingFailureException(QuizAttempt.class, attempt.getId());
+            }
+            if (attempt.getQuestionIndex() == BAD_QUESTION) {
+                throw new DataIntegrityViolationException("bad row");
+            }
+            attempt.setId(UUID.randomUUID());
+            saved.add(attempt);
+            return attempt;
+        });
+
+        QuizAttemptWriter writer = new QuizAttemptWriter(repository, meterRegistry, 100, 50);
+        writer.enqueue(List.of(attempt(0), attempt(1), attempt(BAD_QUESTION), attempt(3), attempt(4)));
+        writer.flush();
+
+        assertThat(saved.stream().map(QuizAttempt::getQuestionIndex).toList()).isEqualTo(List.of(0, 1, 3, 4));
+        assertThat(meterRegistry.get("quiz.attempts.failed").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("quiz.attempts.pending").gauge().value()).isEqualTo(0.0);
+    }
+
+    private static QuizAttempt attempt(int questionIndex) {
+        return QuizAttempt.builder()
+                .studentId(UUID.randomUUID())
+                .courseId(UUID.randomUUID())
+                .lessonId(UUID.randomUUID())
+                .questionIndex(questionIndex)
+                .selectedOption(0)
+                .correct(true)
+                .attemptedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.forsakenecho.learning_management_system.recommendation;
+
+import com.forsakenecho.learning_management_system.repository.CourseManagementRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Đo thời gian recommend() trên chỉ mục tổng hợp (mặc định 200k học viên / 20k khóa học,
+ * độ phổ biến lệch kiểu Zipf), in ra p50 / p99. Không cần DB: các lượt mua sinh trong bộ nhớ.
+ * Chỉ chạy khi bật: mvn test -Dtest=CoPurchaseRecommenderBenchmarkTests -Dbenchmark=true
+ *     [-Dbenchmark.users=200000 -Dbenchmark.courses=20000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CoPurchaseRecommenderBenchmarkTests {
+
+    private static final int MAX_BASKET = 12;
+    private static final int QUERIES = 200_000;
+
+    @Test
+    void recommendLatency() {
+        int userCount = Integer.getInteger("benchmark.users", 200_000);
+        int courseCount = Integer.getInteger("benchmark.courses", 20_000);
+        Random random = new Random(42);
+
+        UUID[] courses = new UUID[courseCount];
+        for (int i = 0; i < courseCount; i++) {
+            courses[i] = UUID.randomUUID();
+        }
+        // Zipf s = 1: khóa học thứ k được chọn với xác suất tỉ lệ 1 / k
+        double[] cumulative = new double[courseCount];
+        double sum = 0;
+        for (int i = 0; i < courseCount; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+
+        List<PurchaseRow> rows = new ArrayList<>();
+        for (int u = 0; u < userCount; u++) {
+            UUID user = UUID.randomUUID();
+            int basket = 1 + random.nextInt(MAX_BASKET);
+            for (int i = 0; i < basket; i++) {
+                int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                rows.add(new PurchaseRow(user, courses[Math.min(index < 0 ? -index - 1 : index, courseCount - 1)]));
+            }
+        }
+
+        CourseManagementRepository repository = Mockito.mock(CourseManagementRepository.class);
+        Mockito.when(repository.findPurchaseRows()).thenReturn(rows);
+        CoPurchaseRecommender recommender = new CoPurchaseRecommender(repository, 50, 100);
+        long buildStart = System.nanoTime();
+        recommender.rebuild();
+        System.out.printf("index: %d users, %d courses, %d purchases, built in %.1f s%n",
+                userCount, courseCount, rows.size(), (System.nanoTime() - buildStart) / 1e9);
+
+        // Warm-up JIT
+        for (int i = 0; i < QUERIES; i++) {
+            recommender.recommend(courses[random.nextInt(courseCount)], Set.of(), 10);
+        }
+
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            UUID course = courses[random.nextInt(courseCount)];
+            long start = System.nanoTime();
+            recommender.recommend(course, Set.of(), 10);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        long p50 = nanos[QUERIES / 2];
+        long p99 = nanos[(int) (QUERIES * 0.99)];
+        System.out.printf("recommend(): p50 %.1f us, p99 %.1f us%n", p50 / 1e3, p99 / 1e3);
+
+        assertThat(p50).isLessThanOrEqualTo(p99);
+    }
+}
@@ -0,0 +1,104 @@
+package com.forsakenecho.learning_management_system.recommendation;
+
+import com.forsakenecho.learning_management_system.enums.CourseAccessType;
+import com.forsakenecho.learning_management_system.event.CoursePurchasedEvent;
+import com.forsakenecho.learning_management_system.repository.CourseManagementRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoPurchaseRecommenderTests {
+
+    private static final UUID A = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private static final UUID B = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+    private static final UUID C = UUID.fromString("00000000-0000-0000-0000-00000000000c");
+    private static final UUID D = UUID.fromString("00000000-0000-0000-0000-00000000000d");
+
+    private final CourseManagementRepository repository = Mockito.mock(CourseManagementRepository.class);
+    private final List<PurchaseRow> rows = new ArrayList<>();
+
+    @Test
+    void cosineRanksNichePairAboveBestSeller() {
+        // A-C mua kèm 2 lần nhưng C bán cho 20 người; A-B chỉ 1 lần nhưng B chỉ có 1 người mua
+        basket(A, C);
+        basket(A, C);
+        basket(A, B);
+        for (int i = 0; i < 18; i++) {
+            basket(C);
+        }
+
+        List<CoPurchaseRecommender.Recommendation> result = recommender(50, 100).recommend(A, Set.of(), 10);
+
+        assertThat(result.stream().map(CoPurchaseRecommender.Recommendation::courseId).toList())
+                .isEqualTo(List.of(B, C));
+        assertThat(result.get(0).coPurchases()).isEqualTo(1);
+        assertThat(result.get(1).coPurchases()).isEqualTo(2);
+        assertThat(Math.abs(result.get(1).score() - 2 / Math.sqrt(3 * 20)) < 1e-9).isTrue();
+    }
+
+    @Test
+    void fullNeighborListEvictsSmallestCounter() {
+        // max-neighbors = 2: A có B (3 lần) và C (1 lần); D tới sau thay C và kế thừa bộ đếm của C + 1
+        basket(A, B);
+        basket(A, B);
+        basket(A, B);
+        basket(A, C);
+        basket(A, D);
+
+        List<CoPurchaseRecommender.Recommendation> result = recommender(2, 100).recommend(A, Set.of(), 10);
+
+        assertThat(result.stream().map(CoPurchaseRecommender.Recommendation::courseId).toList())
+                .isEqualTo(List.of(B, D));
+        // Bộ đếm thừa kế (2) bị chặn bởi số lượt mua thật của D (1)
+        assertThat(result.get(1).coPurchases()).isEqualTo(1);
+    }
+
+    @Test
+    void excludedCoursesAreSkipped() {
+        basket(A, B, C);
+
+        List<CoPurchaseRecommender.Recommendation> result = recommender(50, 100).recommend(A, Set.of(B), 10);
+
+        assertThat(result.stream().map(CoPurchaseRecommender.Recommendation::courseId).toList())
+                .isEqualTo(List.of(C));
+    }
+
+    @Test
+    void purchasePairsOnlyWithMostRecentBasket() {
+        UUID student = UUID.randomUUID();
+        basket(B);
+        basket(C);
+        basket(D);
+        CoPurchaseRecommender recommender = recommender(50, 2);
+        // max-basket = 2: chỉ hỏi 3 lượt mua mới nhất (gồm cả khóa vừa mua), D mua từ lâu không được ghép
+        Mockito.when(repository.findRecentCourseIds(student, CourseAccessType.PURCHASED, PageRequest.of(0, 3)))
+                .thenReturn(List.of(A, B, C));
+
+        recommender.onCoursePurchased(new CoursePurchasedEvent(student, A));
+
+        assertThat(recommender.recommend(A, Set.of(), 10).stream()
+                .map(CoPurchaseRecommender.Recommendation::courseId).toList())
+                .isEqualTo(List.of(B, C));
+    }
+
+    private CoPurchaseRecommender recommender(int maxNeighbors, int maxBasket) {
+        Mockito.when(repository.findPurchaseRows()).thenReturn(rows);
+        CoPurchaseRecommender recommender = new CoPurchaseRecommender(repository, maxNeighbors, maxBasket);
+        recommender.rebuild();
+        return recommender;
+    }
+
+    private void basket(UUID... courses) {
+        UUID user = UUID.randomUUID();
+        for (UUID course : courses) {
+            rows.add(new PurchaseRow(user, course));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.forsakenecho.learning_management_system.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Các index cho query nóng (db/migration V1/V5 và @Index của entity) tồn tại với đúng thứ tự cột.
+ * Kiểm tra qua information_schema.statistics thay vì EXPLAIN: trên DB test gần rỗng optimizer
+ * có thể chọn full scan hoặc index khác, nên kết quả EXPLAIN không ổn định.
+ */
+@SpringBootTest
+class HotQueryIndexTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // CourseManagementRepository.findByCourseIdAndAccessType / findBuyersByCourseId
+    @Test
+    void courseManagementByCourseAndAccessType() {
+        assertIndex("course_management", "idx_cm_course_access", "course_id,access_type");
+    }
+
+    // Khóa học đã mua theo user + NOT EXISTS ở explore
+    @Test
+    void courseManagementByUserAndAccessType() {
+        assertIndex("course_management", "idx_cm_user_access_course", "user_id,access_type,course_id");
+    }
+
+    @Test
+    void unreadNotificationsByRecipient() {
+        assertIndex("notifications", "idx_notifications_recipient_read_created", "recipient_email,is_read,created_at");
+    }
+
+    @Test
+    void commentsByCourseOrderedByCreatedAt() {
+        assertIndex("comment", "idx_comment_course_created", "course_id,created_at");
+    }
+
+    @Test
+    void lessonsByCourseOrderedByLessonOrder() {
+        assertIndex("lesson", "idx_lesson_course_order", "course_id,lesson_order");
+    }
+
+    @Test
+    void lessonsByCourseOrderedBySortKey() {
+        assertIndex("lesson", "idx_lesson_course_sort", "course_id,sort_key");
+    }
+
+    @Test
+    void userByEmail() {
+        assertIndex("users", "idx_users_email", "email");
+    }
+
+    @Test
+    void ratingByCourseAndStudent() {
+        assertIndex("rating", "idx_rating_course_student", "course_id,student_id");
+    }
+
+    // Unique (student_id, course_id) do Hibernate tạo, tên index tự sinh -> tìm theo cột
+    @Test
+    void learningProgressByStudent() {
+        List<String> indexNames = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.statistics "
+                        + "WHERE table_schema = DATABASE() AND table_name = 'learning_progress' AND non_unique = 0 "
+                        + "GROUP BY index_name "
+                        + "HAVING GROUP_CONCAT(column_name ORDER BY seq_in_index) = 'student_id,course_id'",
+                String.class);
+        assertThat(indexNames).hasSize(1);
+    }
+
+    private void assertIndex(String table, String indexName, String columns) {
+        List<String> actual = jdbcTemplate.queryForList(
+                "SELECT GROUP_CONCAT(column_name ORDER BY seq_in_index) FROM information_schema.statistics "
+                        + "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? "
+                        + "GROUP BY index_name",
+                String.class, table, indexName);
+        assertThat(actual).isEqualTo(List.of(columns));
+    }
+}
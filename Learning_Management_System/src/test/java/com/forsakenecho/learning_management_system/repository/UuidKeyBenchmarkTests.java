@@ -0,0 +1,75 @@
+package com.forsakenecho.learning_management_system.repository;
+
+import com.forsakenecho.learning_management_system.entity.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * So sánh tốc độ insert và kích thước index: UUID ngẫu nhiên CHAR(36) (trước) với UUIDv7 BINARY(16) (sau).
+ * Chỉ chạy khi bật: mvn test -Dtest=UuidKeyBenchmarkTests -Dbenchmark=true [-Dbenchmark.rows=200000]
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UuidKeyBenchmarkTests {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insertThroughputAndIndexSize() {
+        int rows = Integer.getInteger("benchmark.rows", 200_000);
+
+        run("bench_uuid_char36_random", "CHAR(36)", rows, () -> UUID.randomUUID().toString());
+        run("bench_uuid_binary16_v7", "BINARY(16)", rows, () -> toBinary(UuidV7Generator.generate()));
+    }
+
+    private void run(String table, String idType, int rows, Supplier<Object> ids) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        // Giống bảng thật: PK + một index phụ (index phụ InnoDB chứa luôn PK nên cũng bị ảnh hưởng)
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id " + idType + " NOT NULL PRIMARY KEY, "
+                + "title VARCHAR(255), created_at DATETIME(6), INDEX idx_" + table + "_created (created_at))");
+        try {
+            long start = System.nanoTime();
+            for (int done = 0; done < rows; done += BATCH_SIZE) {
+                List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+                for (int i = 0; i < Math.min(BATCH_SIZE, rows - done); i++) {
+                    batch.add(new Object[]{ids.get(), "Course " + (done + i), Timestamp.valueOf(LocalDateTime.now())});
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id, title, created_at) VALUES (?, ?, ?)", batch);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            jdbcTemplate.execute("ANALYZE TABLE " + table);
+            Map<String, Object> size = jdbcTemplate.queryForMap(
+                    "SELECT data_length, index_length FROM information_schema.tables "
+                            + "WHERE table_schema = DATABASE() AND table_name = ?", table);
+            System.out.printf("%s: %d rows in %.1fs (%.0f rows/s), clustered %d KB, secondary %d KB%n",
+                    table, rows, seconds, rows / seconds,
+                    ((Number) size.get("data_length")).longValue() / 1024,
+                    ((Number) size.get("index_length")).longValue() / 1024);
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        }
+    }
+
+    private static byte[] toBinary(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
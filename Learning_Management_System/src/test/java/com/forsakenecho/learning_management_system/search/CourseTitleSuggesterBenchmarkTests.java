@@ -0,0 +1,123 @@
+package com.forsakenecho.learning_management_system.search;
+
+import com.forsakenecho.learning_management_system.repository.CourseRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Đo thời gian suggest() trên 100k tiêu đề tổng hợp (từ vựng tiếng Việt + thuật ngữ ngẫu nhiên),
+ * truy vấn như khi đang gõ: 1-3 từ liên tiếp của một tiêu đề, từ cuối bị cắt dở, ~20% có lỗi đảo ký tự.
+ * In ra p50 / p99; mục tiêu p99 < 5 ms. Không cần DB.
+ * Chỉ chạy khi bật: mvn test -Dtest=CourseTitleSuggesterBenchmarkTests -Dbenchmark=true [-Dbenchmark.titles=100000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CourseTitleSuggesterBenchmarkTests {
+
+    private static final String[] COMMON_WORDS = {
+            "Lập", "trình", "cơ", "bản", "nâng", "cao", "cho", "người", "mới", "bắt", "đầu", "học", "thực", "hành",
+            "dự", "án", "phát", "triển", "ứng", "dụng", "web", "di", "động", "thiết", "kế", "đồ", "họa", "dữ", "liệu",
+            "phân", "tích", "khoa", "máy", "tính", "mạng", "bảo", "mật", "kinh", "doanh", "quản", "lý", "tiếng",
+            "Anh", "giao", "tiếp", "toán", "vật", "lý", "hóa", "sinh", "marketing", "kỹ", "năng", "mềm", "từ", "A",
+            "đến", "Z", "toàn", "tập", "chuyên", "sâu", "nhập", "môn", "hướng", "dẫn", "Java", "Python", "React",
+            "Spring", "Boot", "SQL", "Docker", "Kubernetes", "JavaScript", "TypeScript", "Node", "Go", "Rust"
+    };
+    private static final int RARE_WORDS = 20_000;
+    private static final int QUERIES = 100_000;
+
+    @Test
+    void suggestLatency() {
+        int titleCount = Integer.getInteger("benchmark.titles", 100_000);
+        Random random = new Random(42);
+
+        String[] rareWords = new String[RARE_WORDS];
+        for (int i = 0; i < RARE_WORDS; i++) {
+            rareWords[i] = randomWord(random, 4 + random.nextInt(6));
+        }
+
+        List<CourseTitleRow> rows = new ArrayList<>(titleCount);
+        List<String[]> titleWords = new ArrayList<>(titleCount);
+        for (int i = 0; i < titleCount; i++) {
+            String[] words = new String[3 + random.nextInt(6)];
+            for (int w = 0; w < words.length; w++) {
+                // Từ phổ biến lệch về đầu danh sách, ~1/4 là thuật ngữ hiếm
+                words[w] = random.nextInt(4) == 0
+                        ? rareWords[random.nextInt(RARE_WORDS)]
+                        : COMMON_WORDS[(int) (COMMON_WORDS.length * Math.pow(random.nextDouble(), 2))];
+            }
+            titleWords.add(words);
+            rows.add(new CourseTitleRow(UUID.randomUUID(), String.join(" ", words), true));
+        }
+
+        CourseRepository repository = Mockito.mock(CourseRepository.class);
+        Mockito.when(repository.findVisibleTitleRows()).thenReturn(rows);
+        CourseTitleSuggester suggester = new CourseTitleSuggester(repository);
+        long buildStart = System.nanoTime();
+        suggester.rebuild();
+        System.out.printf("trie: %d titles built in %.1f s%n", titleCount, (System.nanoTime() - buildStart) / 1e9);
+
+        List<String> queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(query(random, titleWords.get(random.nextInt(titleCount))));
+        }
+
+        // Warm-up JIT
+        for (String query : queries) {
+            suggester.suggest(query, 10);
+        }
+
+        long[] nanos = new long[QUERIES];
+        int empty = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            List<CourseTitleSuggester.Suggestion> result = suggester.suggest(queries.get(i), 10);
+            nanos[i] = System.nanoTime() - start;
+            empty += result.isEmpty() ? 1 : 0;
+        }
+        Arrays.sort(nanos);
+        long p50 = nanos[QUERIES / 2];
+        long p99 = nanos[(int) (QUERIES * 0.99)];
+        System.out.printf("suggest(): p50 %.3f ms, p99 %.3f ms, max %.3f ms, %d%% queries without result%n",
+                p50 / 1e6, p99 / 1e6, nanos[QUERIES - 1] / 1e6, empty * 100 / QUERIES);
+
+        assertThat(p99).isLessThan(5_000_000L);
+    }
+
+    // 1-3 từ liên tiếp, từ cuối cắt dở; ~20% đảo hai ký tự của một từ dài
+    private static String query(Random random, String[] words) {
+        int from = random.nextInt(words.length);
+        int to = Math.min(words.length, from + 1 + random.nextInt(3));
+        List<String> parts = new ArrayList<>(Arrays.asList(words).subList(from, to));
+        String last = parts.get(parts.size() - 1);
+        parts.set(parts.size() - 1, last.substring(0, 1 + random.nextInt(last.length())));
+        if (random.nextInt(5) == 0) {
+            int w = random.nextInt(parts.size());
+            String word = parts.get(w);
+            if (word.length() >= 5) {
+                int p = 1 + random.nextInt(word.length() - 2);
+                char[] chars = word.toCharArray();
+                char c = chars[p];
+                chars[p] = chars[p + 1];
+                chars[p + 1] = c;
+                parts.set(w, new String(chars));
+            }
+        }
+        return String.join(" ", parts);
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
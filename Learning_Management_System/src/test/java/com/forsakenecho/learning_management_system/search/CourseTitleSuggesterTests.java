@@ -0,0 +1,144 @@
+package com.forsakenecho.learning_management_system.search;
+
+import com.forsakenecho.learning_management_system.event.CourseChangedEvent;
+import com.forsakenecho.learning_management_system.repository.CourseRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CourseTitleSuggesterTests {
+
+    private final CourseRepository repository = Mockito.mock(CourseRepository.class);
+    private final List<CourseTitleRow> rows = new ArrayList<>();
+
+    @Test
+    void unaccentedQueryMatchesVietnameseTitle() {
+        course("Lập trình Java");
+        course("Thiết kế đồ họa");
+
+        assertThat(titles(suggester().suggest("lap trinh", 10))).isEqualTo(List.of("Lập trình Java"));
+    }
+
+    @Test
+    void toleratesOneEditIncludingTransposition() {
+        course("Python cơ bản");
+
+        // "pyhton" (6 ký tự, tối đa 1 lỗi): đảo hai ký tự liền nhau
+        assertThat(titles(suggester().suggest("pyhton co", 10))).isEqualTo(List.of("Python cơ bản"));
+        // Thiếu một ký tự
+        assertThat(titles(suggester().suggest("pyton co", 10))).isEqualTo(List.of("Python cơ bản"));
+        // Ký tự đầu phải đúng
+        assertThat(suggester().suggest("ypthon co", 10)).isEmpty();
+    }
+
+    @Test
+    void toleratesTwoEditsOnLongWordsOnly() {
+        course("Programming cơ bản");
+        course("Java cơ bản");
+        CourseTitleSuggester suggester = suggester();
+
+        // "progrmaing" (10 ký tự, tối đa 2 lỗi): đảo "am" + thiếu một "m"
+        assertThat(titles(suggester.suggest("progrmaing co", 10))).isEqualTo(List.of("Programming cơ bản"));
+        // Ba lỗi thì không khớp
+        assertThat(suggester.suggest("prgrmaing co", 10)).isEmpty();
+        // Từ ngắn (<= 3 ký tự) phải đúng chính xác; 4 ký tự đã cho phép 1 lỗi
+        assertThat(suggester.suggest("jva", 10)).isEmpty();
+        assertThat(titles(suggester.suggest("jvaa", 10))).isEqualTo(List.of("Java cơ bản"));
+    }
+
+    @Test
+    void onlyLastWordMatchesAsPrefix() {
+        course("Lập trình Java");
+        CourseTitleSuggester suggester = suggester();
+
+        assertThat(titles(suggester.suggest("lap tr", 10))).isEqualTo(List.of("Lập trình Java"));
+        assertThat(titles(suggester.suggest("lap trinh ja", 10))).isEqualTo(List.of("Lập trình Java"));
+        // Các từ trước từ cuối phải khớp nguyên từ
+        assertThat(suggester.suggest("tr java", 10)).isEmpty();
+    }
+
+    @Test
+    void ranksByEditsThenAdjacencyThenPositionThenLength() {
+        course("Pythom cơ bản");                          // 1 lỗi
+        course("Python nâng cao cho người mới bắt đầu");  // khớp đúng, tiêu đề dài
+        course("Python cơ bản");                          // khớp đúng, tiêu đề ngắn
+        course("Nhập môn Python");                        // khớp đúng nhưng ở vị trí thứ 3
+        CourseTitleSuggester suggester = suggester();
+
+        assertThat(titles(suggester.suggest("python", 10))).isEqualTo(List.of(
+                "Python cơ bản",
+                "Python nâng cao cho người mới bắt đầu",
+                "Nhập môn Python",
+                "Pythom cơ bản"));
+
+        course("Lập và trình");            // hai từ không liền nhau
+        course("Lập trình Java nâng cao"); // hai từ liền nhau, tiêu đề dài hơn
+        assertThat(titles(suggester().suggest("lap trinh", 10)))
+                .isEqualTo(List.of("Lập trình Java nâng cao", "Lập và trình"));
+    }
+
+    @Test
+    void limitKeepsBestSuggestions() {
+        course("Java cơ bản");
+        course("Java nâng cao");
+        course("Học Java qua dự án");
+
+        assertThat(titles(suggester().suggest("java", 2))).isEqualTo(List.of("Java cơ bản", "Java nâng cao"));
+    }
+
+    @Test
+    void appliesCourseChangedEventsIncrementally() {
+        UUID shared = course("Rust nâng cao");
+        CourseTitleSuggester suggester = suggester();
+        UUID id = UUID.randomUUID();
+
+        // Tạo
+        changed(suggester, new CourseTitleRow(id, "Lập trình Go", true), CourseChangedEvent.ChangeType.CREATED);
+        assertThat(titles(suggester.suggest("lap trinh go", 10))).isEqualTo(List.of("Lập trình Go"));
+
+        // Đổi tên: từ cũ không còn trỏ tới khóa học
+        changed(suggester, new CourseTitleRow(id, "Rust cơ bản", true), CourseChangedEvent.ChangeType.UPDATED);
+        assertThat(suggester.suggest("lap trinh", 10)).isEmpty();
+        assertThat(titles(suggester.suggest("rust", 10))).isEqualTo(List.of("Rust cơ bản", "Rust nâng cao"));
+
+        // Ẩn
+        changed(suggester, new CourseTitleRow(id, "Rust cơ bản", false), CourseChangedEvent.ChangeType.VISIBILITY);
+        assertThat(titles(suggester.suggest("rust", 10))).isEqualTo(List.of("Rust nâng cao"));
+
+        // Hiện lại rồi xóa: khóa học khác dùng chung từ "rust" vẫn còn
+        changed(suggester, new CourseTitleRow(id, "Rust cơ bản", true), CourseChangedEvent.ChangeType.VISIBILITY);
+        assertThat(titles(suggester.suggest("rust co", 10))).isEqualTo(List.of("Rust cơ bản"));
+        suggester.onCourseChanged(new CourseChangedEvent(id, CourseChangedEvent.ChangeType.DELETED));
+        assertThat(suggester.suggest("rust co", 10)).isEmpty();
+        assertThat(suggester.suggest("rust", 10).stream().map(CourseTitleSuggester.Suggestion::courseId).toList())
+                .isEqualTo(List.of(shared));
+    }
+
+    private UUID course(String title) {
+        UUID id = UUID.randomUUID();
+        rows.add(new CourseTitleRow(id, title, true));
+        return id;
+    }
+
+    private CourseTitleSuggester suggester() {
+        Mockito.when(repository.findVisibleTitleRows()).thenReturn(List.copyOf(rows));
+        CourseTitleSuggester suggester = new CourseTitleSuggester(repository);
+        suggester.rebuild();
+        return suggester;
+    }
+
+    private void changed(CourseTitleSuggester suggester, CourseTitleRow row, CourseChangedEvent.ChangeType type) {
+        Mockito.when(repository.findTitleRowById(row.id())).thenReturn(Optional.of(row));
+        suggester.onCourseChanged(new CourseChangedEvent(row.id(), type));
+    }
+
+    private static List<String> titles(List<CourseTitleSuggester.Suggestion> suggestions) {
+        return suggestions.stream().map(CourseTitleSuggester.Suggestion::title).toList();
+    }
+}
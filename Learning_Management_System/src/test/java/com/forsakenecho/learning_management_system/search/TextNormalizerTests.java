@@ -0,0 +1,42 @@
+package com.forsakenecho.learning_management_system.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextNormalizerTests {
+
+    private static final String TITLE = "Lập trình Java cơ bản cho người mới";
+
+    @Test
+    void foldsPrecomposedVietnamese() {
+        assertThat(TextNormalizer.terms(TITLE))
+                .isEqualTo(List.of("lap", "trinh", "java", "co", "ban", "cho", "nguoi", "moi"));
+        assertThat(TextNormalizer.terms("Đường đi")).isEqualTo(List.of("duong", "di"));
+    }
+
+    @Test
+    void nfdInputGivesSameTermsAsNfc() {
+        String nfd = Normalizer.normalize(TITLE, Normalizer.Form.NFD);
+        assertThat(nfd.length()).isNotEqualTo(TITLE.length());
+
+        assertThat(TextNormalizer.terms(nfd)).isEqualTo(TextNormalizer.terms(TITLE));
+    }
+
+    @Test
+    void nfdTokenOffsetsPointIntoOriginalText() {
+        String nfd = Normalizer.normalize("Tiếng Việt", Normalizer.Form.NFD);
+
+        List<TextNormalizer.Token> tokens = TextNormalizer.tokenize(nfd);
+
+        assertThat(tokens.stream().map(TextNormalizer.Token::term).toList()).isEqualTo(List.of("tieng", "viet"));
+        // Vị trí bao trọn cả dấu kết hợp -> highlight không cắt đôi ký tự
+        assertThat(nfd.substring(tokens.get(0).start(), tokens.get(0).end()))
+                .isEqualTo(Normalizer.normalize("Tiếng", Normalizer.Form.NFD));
+        assertThat(nfd.substring(tokens.get(1).start(), tokens.get(1).end()))
+                .isEqualTo(Normalizer.normalize("Việt", Normalizer.Form.NFD));
+    }
+}
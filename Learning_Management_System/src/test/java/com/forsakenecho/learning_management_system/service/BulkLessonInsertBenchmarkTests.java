@@ -0,0 +1,122 @@
+package com.forsakenecho.learning_management_system.service;
+
+import com.forsakenecho.learning_management_system.dto.CreateCourseRequest;
+import com.forsakenecho.learning_management_system.dto.CreateCourseWithLessonsRequest;
+import com.forsakenecho.learning_management_system.dto.LessonRequest;
+import com.forsakenecho.learning_management_system.entity.Course;
+import com.forsakenecho.learning_management_system.entity.User;
+import com.forsakenecho.learning_management_system.enums.CourseCategory;
+import com.forsakenecho.learning_management_system.enums.Role;
+import com.forsakenecho.learning_management_system.enums.Status;
+import com.forsakenecho.learning_management_system.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * So sánh tạo khóa học AI: từng bài học một (1 transaction / bài) với endpoint bulk (1 transaction, JDBC batch).
+ * Chỉ chạy khi bật: mvn test -Dtest=BulkLessonInsertBenchmarkTests -Dbenchmark=true [-Dbenchmark.lessons=100]
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkLessonInsertBenchmarkTests {
+
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void bulkCreateVersusPerLessonCreate() throws Exception {
+        int lessonCount = Integer.getInteger("benchmark.lessons", 100);
+        User teacher = userRepository.save(User.builder()
+                .name("Benchmark Teacher")
+                .email("bench-" + UUID.randomUUID() + "@example.com")
+                .password("x")
+                .role(Role.TEACHER)
+                .status(Status.ACTIVE)
+                .balance(BigDecimal.ZERO)
+                .build());
+        List<UUID> createdCourses = new ArrayList<>();
+
+        try {
+            // Lượt đầu để JIT / connection pool ấm lên, không tính
+            createdCourses.add(perLesson(teacher, lessonCount));
+            createdCourses.add(bulk(teacher, lessonCount));
+
+            long perLessonNanos = 0;
+            long bulkNanos = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                createdCourses.add(perLesson(teacher, lessonCount));
+                perLessonNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                createdCourses.add(bulk(teacher, lessonCount));
+                bulkNanos += System.nanoTime() - start;
+            }
+
+            double perLessonRate = lessonCount * ROUNDS / (perLessonNanos / 1e9);
+            double bulkRate = lessonCount * ROUNDS / (bulkNanos / 1e9);
+            System.out.printf("per-lesson: %.0f lessons/s (%.1f ms/course)%n",
+                    perLessonRate, perLessonNanos / 1e6 / ROUNDS);
+            System.out.printf("bulk:       %.0f lessons/s (%.1f ms/course), x%.1f%n",
+                    bulkRate, bulkNanos / 1e6 / ROUNDS, bulkRate / perLessonRate);
+
+            assertThat(bulkNanos).isLessThan(perLessonNanos);
+        } finally {
+            createdCourses.forEach(id -> courseService.deleteCourse(id, teacher.getId()));
+            userRepository.delete(teacher);
+        }
+    }
+
+    private UUID perLesson(User teacher, int lessonCount) throws Exception {
+        Course course = courseService.createCourse(
+                new CreateCourseRequest("Bench per-lesson", "benchmark", CourseCategory.PROGRAMMING, 0.0, null),
+                teacher, null, null);
+        for (LessonRequest lesson : lessons(lessonCount)) {
+            lessonService.createLesson(course.getId(), lesson);
+        }
+        return course.getId();
+    }
+
+    private UUID bulk(User teacher, int lessonCount) throws Exception {
+        CreateCourseWithLessonsRequest request = new CreateCourseWithLessonsRequest();
+        request.setTitle("Bench bulk");
+        request.setDescription("benchmark");
+        request.setCategory(CourseCategory.PROGRAMMING);
+        request.setPrice(0.0);
+        request.setLessons(lessons(lessonCount));
+        return courseService.createCourseWithLessons(request, teacher).getCourse().getId();
+    }
+
+    private static List<LessonRequest> lessons(int count) {
+        List<LessonRequest> lessons = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            lessons.add(LessonRequest.builder()
+                    .title("Bài " + i)
+                    .recallQuestion("Câu hỏi gợi nhớ " + i)
+                    .material("Nội dung bài học ".repeat(50))
+                    .shortAnswer("Trả lời ngắn " + i)
+                    .multipleChoice("[]")
+                    .summaryTask("Tóm tắt " + i)
+                    .lessonOrder(i)
+                    .build());
+        }
+        return lessons;
+    }
+}
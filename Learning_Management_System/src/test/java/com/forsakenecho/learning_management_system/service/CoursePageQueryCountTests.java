@@ -0,0 +1,154 @@
+package com.forsakenecho.learning_management_system.service;
+
+import com.forsakenecho.learning_management_system.dto.CourseResponse;
+import com.forsakenecho.learning_management_system.entity.Course;
+import com.forsakenecho.learning_management_system.entity.CourseManagement;
+import com.forsakenecho.learning_management_system.entity.User;
+import com.forsakenecho.learning_management_system.enums.CourseAccessType;
+import com.forsakenecho.learning_management_system.enums.CourseCategory;
+import com.forsakenecho.learning_management_system.enums.Role;
+import com.forsakenecho.learning_management_system.enums.Status;
+import com.forsakenecho.learning_management_system.repository.CourseManagementRepository;
+import com.forsakenecho.learning_management_system.repository.CourseRepository;
+import com.forsakenecho.learning_management_system.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Các danh sách khóa học có phân trang chỉ tốn đúng 2 câu SQL mỗi trang (SELECT projection + COUNT),
+ * không phát sinh thêm query khi lấy tên người tạo / thống kê của từng khóa học.
+ * Job định kỳ chạy thường xuyên được giãn ra để không chen câu SQL vào lúc đang đếm.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "jwt.revocation.sync-interval-ms=3600000",
+        "security.principal-cache.sync-interval-ms=3600000"
+})
+class CoursePageQueryCountTests {
+
+    private static final int COURSES = 40;
+    private static final int PURCHASED = 20;
+    private static final int PAGE_SIZE = 10; // trang đầy -> Spring Data luôn chạy câu COUNT
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseManagementRepository courseManagementRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User teacher;
+    private User student;
+    private final List<Course> courses = new ArrayList<>();
+    private final List<CourseManagement> purchases = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        teacher = userRepository.save(user("Query Count Teacher", Role.TEACHER));
+        student = userRepository.save(user("Query Count Student", Role.STUDENT));
+
+        List<Course> newCourses = new ArrayList<>();
+        for (int i = 0; i < COURSES; i++) {
+            newCourses.add(Course.builder()
+                    .title("Query count " + i)
+                    .description("query count test")
+                    .category(CourseCategory.PROGRAMMING)
+                    .creator(teacher)
+                    .price(0.0)
+                    .visible(true)
+                    .build());
+        }
+        courses.addAll(courseRepository.saveAll(newCourses));
+
+        List<CourseManagement> owned = new ArrayList<>();
+        for (int i = 0; i < PURCHASED; i++) {
+            owned.add(CourseManagement.builder()
+                    .user(student)
+                    .course(courses.get(i))
+                    .accessType(CourseAccessType.PURCHASED)
+                    .build());
+        }
+        purchases.addAll(courseManagementRepository.saveAll(owned));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        courseManagementRepository.deleteAll(purchases);
+        courseRepository.deleteAll(courses);
+        userRepository.deleteAll(List.of(teacher, student));
+    }
+
+    @Test
+    void purchasedCoursesPage() {
+        assertOneSelectAndOneCountPerPage(p -> courseService.getPurchasedCourses(student.getId(), p));
+    }
+
+    @Test
+    void createdCoursesPage() {
+        assertOneSelectAndOneCountPerPage(p -> courseService.getCreatedCoursesForTeacher(teacher.getId(), null, p));
+    }
+
+    // AdminController gọi thẳng repository
+    @Test
+    void adminCoursesPage() {
+        assertOneSelectAndOneCountPerPage(courseRepository::findAllResponses);
+    }
+
+    @Test
+    void exploreCoursesPage() {
+        assertOneSelectAndOneCountPerPage(p -> courseService.getExploreCoursesForStudent(student.getId(), null, p));
+    }
+
+    private void assertOneSelectAndOneCountPerPage(Function<Pageable, Page<CourseResponse>> listing) {
+        for (int page = 0; page < 2; page++) {
+            Pageable pageable = PageRequest.of(page, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt"));
+            statistics.clear();
+
+            Page<CourseResponse> result = listing.apply(pageable);
+            // Đọc các trường từng bị nạp lazy (creator) khi còn map từ entity
+            result.getContent().forEach(CourseResponse::getCreatorName);
+
+            assertThat(result.getContent()).hasSize(PAGE_SIZE);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2L);
+        }
+    }
+
+    private static User user(String name, Role role) {
+        return User.builder()
+                .name(name)
+                .email("query-count-" + UUID.randomUUID() + "@example.com")
+                .password("x")
+                .role(role)
+                .status(Status.ACTIVE)
+                .balance(BigDecimal.ZERO)
+                .build();
+    }
+}
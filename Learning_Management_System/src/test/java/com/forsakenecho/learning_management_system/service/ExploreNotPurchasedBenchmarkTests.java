@@ -0,0 +1,148 @@
+package com.forsakenecho.learning_management_system.service;
+
+import com.forsakenecho.learning_management_system.entity.Course;
+import com.forsakenecho.learning_management_system.entity.CourseManagement;
+import com.forsakenecho.learning_management_system.entity.User;
+import com.forsakenecho.learning_management_system.enums.CourseAccessType;
+import com.forsakenecho.learning_management_system.enums.CourseCategory;
+import com.forsakenecho.learning_management_system.enums.Role;
+import com.forsakenecho.learning_management_system.enums.Status;
+import com.forsakenecho.learning_management_system.repository.CourseManagementRepository;
+import com.forsakenecho.learning_management_system.repository.CourseRepository;
+import com.forsakenecho.learning_management_system.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * So sánh loại trừ khóa học đã mua ở trang khám phá: nạp danh sách id rồi NOT IN (...) (trước)
+ * với một subquery NOT EXISTS (sau), cho sinh viên đã mua 10 / 100 / 1000 khóa học.
+ * Chỉ chạy khi bật: mvn test -Dtest=ExploreNotPurchasedBenchmarkTests -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExploreNotPurchasedBenchmarkTests {
+
+    private static final int[] PURCHASE_COUNTS = {10, 100, 1000};
+    private static final int EXTRA_COURSES = 200; // khóa học chưa mua, để trang kết quả không rỗng
+    private static final int ROUNDS = 200;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseManagementRepository courseManagementRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void notExistsVersusNotInList() {
+        List<User> users = new ArrayList<>();
+        List<Course> courses = new ArrayList<>();
+        List<CourseManagement> purchases = new ArrayList<>();
+
+        try {
+            User teacher = userRepository.save(user("Benchmark Teacher", Role.TEACHER));
+            users.add(teacher);
+            int maxPurchases = PURCHASE_COUNTS[PURCHASE_COUNTS.length - 1];
+            for (int i = 0; i < maxPurchases + EXTRA_COURSES; i++) {
+                courses.add(Course.builder()
+                        .title("Bench explore " + i)
+                        .description("benchmark")
+                        .category(CourseCategory.PROGRAMMING)
+                        .creator(teacher)
+                        .price(0.0)
+                        .visible(true)
+                        .build());
+            }
+            courses = courseRepository.saveAll(courses);
+
+            Pageable pageable = PageRequest.of(0, 12, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+            for (int purchaseCount : PURCHASE_COUNTS) {
+                User student = userRepository.save(user("Benchmark Student " + purchaseCount, Role.STUDENT));
+                users.add(student);
+                List<CourseManagement> owned = new ArrayList<>(purchaseCount);
+                for (int i = 0; i < purchaseCount; i++) {
+                    owned.add(CourseManagement.builder()
+                            .user(student)
+                            .course(courses.get(i))
+                            .accessType(CourseAccessType.PURCHASED)
+                            .build());
+                }
+                purchases.addAll(courseManagementRepository.saveAll(owned));
+
+                // Hai cách phải trả về cùng một trang
+                assertThat(ids(notInList(student.getId(), pageable)))
+                        .isEqualTo(ids(courseService.getVisibleCoursesNotPurchased(student.getId(), pageable)));
+
+                // Lượt đầu để JIT / connection pool / buffer pool ấm lên, không tính
+                time(() -> notInList(student.getId(), pageable), ROUNDS / 10);
+                time(() -> courseService.getVisibleCoursesNotPurchased(student.getId(), pageable), ROUNDS / 10);
+
+                double notInMs = time(() -> notInList(student.getId(), pageable), ROUNDS);
+                double notExistsMs = time(() -> courseService.getVisibleCoursesNotPurchased(student.getId(), pageable), ROUNDS);
+                System.out.printf("%4d purchases: NOT IN list %.2f ms/page, NOT EXISTS %.2f ms/page (x%.1f)%n",
+                        purchaseCount, notInMs, notExistsMs, notInMs / notExistsMs);
+            }
+        } finally {
+            courseManagementRepository.deleteAll(purchases);
+            courseRepository.deleteAll(courses);
+            userRepository.deleteAll(users);
+        }
+    }
+
+    // Cách cũ: nạp mọi CourseManagement đã mua, lấy id khóa học rồi bind vào NOT IN (...)
+    private Page<Course> notInList(UUID studentId, Pageable pageable) {
+        List<UUID> purchasedIds = courseManagementRepository
+                .findByUserIdAndAccessType(studentId, CourseAccessType.PURCHASED)
+                .stream()
+                .map(cm -> cm.getCourse().getId())
+                .toList();
+
+        Specification<Course> spec = Specification.where((root, query, cb) -> cb.isTrue(root.get("visible")));
+        if (!purchasedIds.isEmpty()) {
+            spec = spec.and((root, query, cb) -> root.get("id").in(purchasedIds).not());
+        }
+        return courseRepository.findAll(spec, pageable);
+    }
+
+    private static double time(Runnable query, int rounds) {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / rounds;
+    }
+
+    private static List<UUID> ids(Page<Course> page) {
+        return page.getContent().stream().map(Course::getId).toList();
+    }
+
+    private static User user(String name, Role role) {
+        return User.builder()
+                .name(name)
+                .email("bench-" + UUID.randomUUID() + "@example.com")
+                .password("x")
+                .role(role)
+                .status(Status.ACTIVE)
+                .balance(BigDecimal.ZERO)
+                .build();
+    }
+}